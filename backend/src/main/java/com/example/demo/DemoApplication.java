@@ -2,9 +2,15 @@ package com.example.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.web.bind.annotation.RestController;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+// outside the transaction interceptor, cache hits do not open a transaction
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @RestController
 public class DemoApplication {
 
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as serving a client that wrote recently, so {@link ReplicaRoutingDataSource}
+ * keeps its reads on the primary until the replicas have caught up. Also used for reads that must not be behind
+ * at all, because what they load is only kept current by later changes.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> false);
+
+    private ReadYourWritesContext() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(true);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Runs the action with its reads on the primary, leaving the thread as it found it.
+     */
+    public static void runOnPrimary(Runnable action) {
+        supplyOnPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Like {@link #runOnPrimary(Runnable)}, for an action with a result.
+     */
+    public static <T> T supplyOnPrimary(Supplier<T> action) {
+        boolean primaryRequired = isPrimaryRequired();
+        requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (!primaryRequired) {
+                clear();
+            }
+        }
+    }
+}
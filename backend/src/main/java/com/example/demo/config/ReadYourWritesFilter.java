@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Hands every client that sends a write a cookie with the time of the write, and keeps the reads of
+ * requests carrying a cookie younger than the window on the primary. The state travels with the client,
+ * so this works the same behind a load balancer without sticky sessions.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_COOKIE = "last-write";
+
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name(), HttpMethod.TRACE.name());
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        if (wroteRecently(request, now)) {
+            ReadYourWritesContext.requirePrimary();
+        }
+
+        // set before the handler runs, the response may be committed by the time it returns
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            Cookie lastWrite = new Cookie(LAST_WRITE_COOKIE, Long.toString(now));
+            lastWrite.setPath("/");
+            lastWrite.setHttpOnly(true);
+            lastWrite.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(lastWrite);
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.clear();
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request, long now) {
+        Cookie lastWrite = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if (lastWrite == null) {
+            return false;
+        }
+        try {
+            return now - Long.parseLong(lastWrite.getValue()) < window.toMillis();
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with a {@link ReplicaRoutingDataSource} once
+ * {@code customer.datasource.replica.urls} is set. Without replicas the application keeps the single pool.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "customer.datasource.replica", name = "urls")
+@RequiredArgsConstructor
+public class ReplicaDataSourceConfig {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ReplicaDataSourceProperties replicaProperties;
+    private final Environment environment;
+
+    // not injectable, JPA and JdbcTemplate must only see the lazy proxy below
+    @Bean(autowireCandidate = false)
+    public ReplicaRoutingDataSource replicaRoutingDataSource() {
+        HikariDataSource primary = pool("primary", dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+
+        List<String> urls = replicaProperties.getUrls();
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = pool("replica-" + i, urls.get(i),
+                    replicaProperties.getUsername() == null
+                            ? dataSourceProperties.determineUsername() : replicaProperties.getUsername(),
+                    replicaProperties.getPassword() == null
+                            ? dataSourceProperties.determinePassword() : replicaProperties.getPassword());
+            // a replica that is down must not keep the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getHealthCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        return new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(replicaProperties.getReadYourWritesWindow(), Clock.systemUTC()));
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
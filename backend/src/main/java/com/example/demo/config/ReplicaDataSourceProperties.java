@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas of {@code spring.datasource.url}. The replica pools use the primary's credentials and
+ * {@code spring.datasource.hikari} settings unless a username or password is given here.
+ */
+@ConfigurationProperties("customer.datasource.replica")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // how long a client that has just written keeps reading from the primary, should exceed the replication lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,50 @@
+package com.example.demo.customer.controller;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Reads the codings of an Accept-Encoding request header with their quality values. A coding with quality 0 is
+ * refused, and the wildcard stands for every coding the header does not name.
+ */
+final class AcceptEncodings {
+
+    static final String GZIP = "gzip";
+
+    private AcceptEncodings() {
+    }
+
+    static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim();
+            // x-gzip is the old name of gzip
+            if (coding.equalsIgnoreCase(GZIP) || coding.equalsIgnoreCase("x-" + GZIP)) {
+                return quality(parameters) > 0;
+            }
+            if (coding.equals("*")) {
+                wildcard = quality(parameters);
+            }
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String[] parameter = parameters[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException exception) {
+                    // a weight that cannot be read is no consent to the coding
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
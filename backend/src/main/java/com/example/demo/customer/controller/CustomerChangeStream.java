@@ -0,0 +1,217 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.model.CustomerChangeNotification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends the {@link CustomerChangeNotification}s to the subscribers as {@value #CHANGE_EVENT} server-sent events,
+ * through a bounded buffer per subscriber. A subscriber whose buffer overflows is disconnected.
+ * <p>
+ * A statement that changes up to 100 customers is sent as one event per customer,
+ * {@code {"type":"UPDATED","id":1,"version":3}}, a larger one as a single {@code {"type":"DELETED","count":500}}.
+ * After such an event or a reconnect a subscriber re-reads its customers through GET /api/v1/customers.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class CustomerChangeStream implements DisposableBean {
+
+    public static final String CHANGE_EVENT = "customer";
+
+    private final ObjectWriter notificationWriter;
+    private final int bufferSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "customer-change-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter overflows;
+
+    private enum Kind {
+        CHANGE, HEARTBEAT
+    }
+
+    private record Event(Kind kind, String json) {
+
+        static final Event HEARTBEAT = new Event(Kind.HEARTBEAT, null);
+    }
+
+    public CustomerChangeStream(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${customer.change-stream.buffer-size:1024}") int bufferSize,
+                                @Value("${customer.change-stream.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.notificationWriter = objectMapper.writerFor(CustomerChangeNotification.class);
+        this.bufferSize = bufferSize;
+        this.overflows = meterRegistry.counter("customer.change.stream.overflows");
+        meterRegistry.gaugeCollectionSize("customer.change.stream.subscribers", Tags.empty(), subscribers);
+        // comments keep idle connections open through proxies and find the clients that are gone
+        heartbeats.scheduleWithFixedDelay(() -> subscribers.forEach(subscriber -> subscriber.offer(Event.HEARTBEAT)),
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        // without a timeout of its own the emitter ends with spring.mvc.async.request-timeout
+        return subscribe(new SseEmitter());
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(exception -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // flushes the response headers, the client knows it is subscribed before the first change
+        subscriber.offer(Event.HEARTBEAT);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onCustomerChange(CustomerChangeNotification notification) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        // serialized once for all subscribers
+        Event event = new Event(Kind.CHANGE, serialize(notification));
+        subscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(Subscriber::disconnect);
+        senders.shutdown();
+    }
+
+    private String serialize(CustomerChangeNotification notification) {
+        try {
+            return notificationWriter.writeValueAsString(notification);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        // linked, a subscriber that keeps up holds a few nodes instead of an array of the full size
+        private final Queue<Event> buffer = new LinkedBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // set apart from the buffer, a full buffer cannot keep it out
+        private final AtomicBoolean disconnected = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // never blocks, called from the listener and heartbeat threads
+        void offer(Event event) {
+            if (!buffer.offer(event) && subscribers.remove(this)) {
+                overflows.increment();
+                log.debug("Disconnecting a customer change subscriber that fell {} events behind", bufferSize);
+                buffer.clear();
+                disconnected.set(true);
+            }
+            scheduleDrain();
+        }
+
+        // completes the response once the buffered events are sent
+        void disconnect() {
+            disconnected.set(true);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private boolean hasWork() {
+            return !buffer.isEmpty() || disconnected.get();
+        }
+
+        private void drain() {
+            do {
+                while (hasWork()) {
+                    if (!sendBuffered()) {
+                        subscribers.remove(this);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // work offered after the last check but before the flag was cleared found the drain running
+            } while (hasWork() && draining.compareAndSet(false, true));
+        }
+
+        // everything buffered goes out in one write and flush
+        private boolean sendBuffered() {
+            Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+            Event event;
+            while ((event = buffer.poll()) != null) {
+                switch (event.kind()) {
+                    case CHANGE -> data.addAll(SseEmitter.event()
+                            .name(CHANGE_EVENT)
+                            .data(event.json(), MediaType.APPLICATION_JSON)
+                            .build());
+                    case HEARTBEAT -> data.addAll(SseEmitter.event().comment("heartbeat").build());
+                }
+            }
+            if (!send(data)) {
+                return false;
+            }
+            if (disconnected.get() && buffer.isEmpty()) {
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+
+        private boolean send(Set<ResponseBodyEmitter.DataWithMediaType> data) {
+            if (data.isEmpty()) {
+                return true;
+            }
+            try {
+                emitter.send(data);
+                return true;
+            } catch (IOException | IllegalStateException exception) {
+                // the client went away or the emitter already completed
+                log.debug("Dropping a customer change subscriber", exception);
+                return false;
+            }
+        }
+    }
+}
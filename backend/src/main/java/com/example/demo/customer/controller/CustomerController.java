@@ -1,11 +1,30 @@
 package com.example.demo.customer.controller;
 
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerBulkRequest;
+import com.example.demo.customer.model.CustomerBulkUpdateRequest;
+import com.example.demo.customer.model.CustomerExportFormat;
+import com.example.demo.customer.model.CustomerImportResult;
+import com.example.demo.customer.model.CustomerPage;
 import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerSearchPage;
+import com.example.demo.customer.model.CustomerSearchRequest;
+import com.example.demo.customer.model.CustomerStats;
+import com.example.demo.customer.model.CustomerSuggestion;
 import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.customer.service.CustomerBatchService;
+import com.example.demo.customer.service.CustomerBulkService;
+import com.example.demo.customer.service.CustomerExportService;
+import com.example.demo.customer.service.CustomerImportService;
 import com.example.demo.customer.service.CustomerService;
+import com.example.demo.customer.service.CustomerStatistics;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,38 +32,152 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/customers")
 @RequiredArgsConstructor
 public class CustomerController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final CustomerService customerService;
+    private final CustomerExportService customerExportService;
+    private final CustomerBatchService customerBatchService;
+    private final CustomerBulkService customerBulkService;
+    private final CustomerImportService customerImportService;
+    private final CustomerJsonCache customerJsonCache;
+    private final CustomerStatistics customerStatistics;
+    private final CustomerChangeStream customerChangeStream;
 
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        List<Customer> customers = customerService.findAllCustomers();
-        return ResponseEntity.ok(customers);
+    public ResponseEntity<List<Customer>> getAllCustomers(@RequestParam(value = "after", required = false) Long after,
+                                                          @RequestParam(value = "limit", required = false) Integer limit) {
+        CustomerPage page = customerService.findCustomersPage(after, limit);
+        // the response is not serialized when the client's ETag still matches the page
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(CustomerETags.of(page));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getCustomers());
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<List<Customer>> searchCustomers(CustomerSearchRequest search) {
+        CustomerSearchPage page = customerService.searchCustomers(search);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getCustomers());
+    }
+
+    @GetMapping("suggest")
+    public ResponseEntity<List<CustomerSuggestion>> suggestCustomers(@RequestParam("q") String query,
+                                                                     @RequestParam(value = "limit", required = false)
+                                                                     Integer limit) {
+        return ResponseEntity.ok(customerService.suggestCustomers(query, limit));
+    }
+
+    @GetMapping("stats")
+    public ResponseEntity<CustomerStats> getCustomerStats() {
+        return ResponseEntity.ok(customerStatistics.snapshot());
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(customerExportService::exportCustomersAsNdjson);
+    }
+
+    // raw rows for analytics, gzip compressed for clients that accept it
+    @GetMapping(value = "export", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam("format") CustomerExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = AcceptEncodings.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("customers." + format.getFileExtension())
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, AcceptEncodings.GZIP);
+        }
+        return response.body(outputStream -> customerExportService.exportCustomers(outputStream, format, gzip));
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCustomerChanges() {
+        return customerChangeStream.subscribe();
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable("id") Long id) {
+    public ResponseEntity<byte[]> getCustomerById(@PathVariable("id") Long id, WebRequest request) {
+        // revalidating only needs the version, the customer is loaded and serialized only when it changed
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = customerService.findCustomerVersion(id);
+            if (version.isPresent() && request.checkNotModified(CustomerETags.of(id, version.get()))) {
+                return null;
+            }
+        }
+
+        // written as is, hot customers are not serialized again on every request
         Customer customer = customerService.findCustomerById(id);
-        return ResponseEntity.ok(customer);
+        return ResponseEntity.ok()
+                .eTag(CustomerETags.of(customer))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(customerJsonCache.toJson(customer));
     }
 
     @PostMapping
     public ResponseEntity<Customer> registerCustomer(@RequestBody @Valid CustomerRegistrationRequest customer) {
         Customer savedCustomer = customerService.saveCustomer(customer);
         return ResponseEntity.created(URI.create(savedCustomer.getId().toString()))
+                .eTag(CustomerETags.of(savedCustomer))
                 .body(savedCustomer);
     }
 
+    @PostMapping("batch")
+    public ResponseEntity<List<CustomerBatchItemResult>> registerCustomers(
+            @RequestBody List<CustomerRegistrationRequest> customers) {
+        List<CustomerBatchItemResult> results = customerBatchService.saveCustomers(customers);
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("bulk-delete")
+    public ResponseEntity<List<CustomerBatchItemResult>> deleteCustomers(@RequestBody CustomerBulkRequest request) {
+        return ResponseEntity.ok(customerBulkService.deleteCustomers(request));
+    }
+
+    @PostMapping("bulk-update")
+    public ResponseEntity<List<CustomerBatchItemResult>> updateCustomers(
+            @RequestBody CustomerBulkUpdateRequest request) {
+        return ResponseEntity.ok(customerBulkService.updateCustomers(request));
+    }
+
+    // the upload is read as it arrives, it is never buffered as a whole
+    @PostMapping(value = "import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<CustomerImportResult> importCustomers(InputStream csv) {
+        return ResponseEntity.ok(customerImportService.importCustomers(csv));
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity deleteCustomer(@PathVariable("id") Long id) {
         customerService.deleteCustomer(id);
@@ -56,6 +189,8 @@ public class CustomerController {
     public ResponseEntity<Customer> updateCustomer(@PathVariable("id") Long id,
                                                    @RequestBody CustomerUpdateRequest customer) {
         Customer updatedCustomer = customerService.updateCustomer(id, customer);
-        return ResponseEntity.ok(updatedCustomer);
+        return ResponseEntity.ok()
+                .eTag(CustomerETags.of(updatedCustomer))
+                .body(updatedCustomer);
     }
 }
@@ -0,0 +1,34 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerPage;
+import org.springframework.util.DigestUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Strong ETags derived from the row versions, so they can be computed without serializing the response body.
+ */
+final class CustomerETags {
+
+    private CustomerETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static String of(Customer customer) {
+        return of(customer.getId(), customer.getVersion());
+    }
+
+    // any inserted, deleted or updated row on the page changes the digest
+    static String of(CustomerPage page) {
+        ByteBuffer buffer = ByteBuffer.allocate((page.getCustomers().size() * 2 + 1) * Long.BYTES);
+        for (Customer customer : page.getCustomers()) {
+            buffer.putLong(customer.getId()).putLong(customer.getVersion());
+        }
+        buffer.putLong(page.getNextCursor() == null ? 0 : page.getNextCursor());
+        return "\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Keeps the UTF-8 JSON of recently served customers, so a hot customer is serialized once per version
+ * instead of once per request. Entries are only served for the version they were written from, and changes
+ * published by the customer service drop them early.
+ */
+@Component
+@Profile("!reactive")
+public class CustomerJsonCache {
+
+    private record SerializedCustomer(Long version, byte[] json) {
+    }
+
+    private final ObjectWriter customerWriter;
+    private final Cache<Long, SerializedCustomer> cache;
+
+    public CustomerJsonCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${customer.json-cache.maximum-size:10000}") long maximumSize) {
+        // the same mapper the message converters use, the bytes match what they would have written
+        this.customerWriter = objectMapper.writerFor(Customer.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customerJson");
+    }
+
+    /**
+     * Returns the JSON of the customer. The array is shared between requests and must not be modified.
+     */
+    public byte[] toJson(Customer customer) {
+        SerializedCustomer cached = cache.getIfPresent(customer.getId());
+        if (cached != null && Objects.equals(cached.version(), customer.getVersion())) {
+            return cached.json();
+        }
+
+        byte[] json = serialize(customer);
+        cache.put(customer.getId(), new SerializedCustomer(customer.getVersion(), json));
+        return json;
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        cache.invalidate(event.id());
+    }
+
+    private byte[] serialize(Customer customer) {
+        try {
+            return customerWriter.writeValueAsBytes(customer);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
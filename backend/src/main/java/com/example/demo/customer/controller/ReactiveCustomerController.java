@@ -0,0 +1,100 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.customer.service.ReactiveCustomerService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+import static com.example.demo.customer.controller.CustomerController.NEXT_CURSOR_HEADER;
+
+/**
+ * Serves the {@link CustomerController} contract on WebFlux and R2DBC when the reactive profile is active: listing,
+ * lookup, registration, batch registration, update, delete and the NDJSON export. Search, suggest, stats, the CSV
+ * export, the change stream, bulk delete and update and the CSV import are only served by the servlet stack.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/customers")
+@RequiredArgsConstructor
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService reactiveCustomerService;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Customer>>> getAllCustomers(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return reactiveCustomerService.findCustomersPage(after, limit)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(CustomerETags.of(page));
+                    if (page.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+                    }
+                    return response.body(page.getCustomers());
+                });
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Customer> exportCustomers() {
+        return reactiveCustomerService.findAllCustomers();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Customer>> getCustomerById(@PathVariable("id") Long id) {
+        // a matching If-None-Match is answered with 304 before the body is written
+        return reactiveCustomerService.findCustomerById(id)
+                .map(customer -> ResponseEntity.ok()
+                        .eTag(CustomerETags.of(customer))
+                        .body(customer));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Customer>> registerCustomer(@RequestBody @Valid CustomerRegistrationRequest customer) {
+        return reactiveCustomerService.saveCustomer(customer)
+                .map(savedCustomer -> ResponseEntity.created(URI.create(savedCustomer.getId().toString()))
+                        .eTag(CustomerETags.of(savedCustomer))
+                        .body(savedCustomer));
+    }
+
+    @PostMapping("batch")
+    public Mono<ResponseEntity<List<CustomerBatchItemResult>>> registerCustomers(
+            @RequestBody List<CustomerRegistrationRequest> customers) {
+        return reactiveCustomerService.saveCustomers(customers)
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable("id") Long id) {
+        return reactiveCustomerService.deleteCustomer(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Customer>> updateCustomer(@PathVariable("id") Long id,
+                                                         @RequestBody CustomerUpdateRequest customer) {
+        return reactiveCustomerService.updateCustomer(id, customer)
+                .map(updatedCustomer -> ResponseEntity.ok()
+                        .eTag(CustomerETags.of(updatedCustomer))
+                        .body(updatedCustomer));
+    }
+}
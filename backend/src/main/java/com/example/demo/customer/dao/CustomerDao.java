@@ -1,6 +1,8 @@
 package com.example.demo.customer.dao;
 
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerSearchCriteria;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,15 +11,69 @@ public interface CustomerDao {
 
     List<Customer> findAllCustomers();
 
+    List<Customer> findCustomersAfter(Long after, int limit);
+
     Optional<Customer> findCustomerById(Long id);
 
+    /**
+     * Returns up to {@code criteria.limit()} customers matching every filter of the criteria, in the order of
+     * its sort with the id breaking ties, starting after {@code criteria.after()}.
+     */
+    List<Customer> searchCustomers(CustomerSearchCriteria criteria);
+
+    /**
+     * Returns only the ids of the customers {@link #searchCustomers} would return, without loading the rows.
+     */
+    List<Long> searchCustomerIds(CustomerSearchCriteria criteria);
+
+    /**
+     * Returns only the version of the customer, which changes on every update, without loading the row.
+     */
+    Optional<Long> findVersionById(Long id);
+
     boolean existsByEmail(String email);
 
     Customer save(Customer newCustomer);
 
+    /**
+     * Inserts the customer in a single statement unless its email is already taken.
+     * Returns empty on an email conflict, so concurrent registrations of the same email cannot both succeed.
+     */
+    Optional<Customer> saveIfEmailAbsent(Customer newCustomer);
+
+    /**
+     * Inserts the customers whose email is not taken yet and returns the inserted rows.
+     */
+    List<Customer> saveAll(List<Customer> newCustomers);
+
     boolean existsById(Long id);
 
-    void deleteById(Long id);
+    /**
+     * Returns the ids of the given ones that exist, in no particular order.
+     */
+    List<Long> findExistingIds(List<Long> ids);
+
+    /**
+     * Returns the deleted row, or empty when no customer with the id exists.
+     */
+    Optional<Customer> deleteById(Long id);
+
+    /**
+     * Applies the non-null fields of the customer to the row with the same id in a single statement and returns
+     * the row as it was before and after. Returns empty when the row does not exist or when none of the given
+     * values differ from the stored ones.
+     */
+    Optional<CustomerChange> updateCustomer(Customer customer);
+
+    /**
+     * Deletes the customers with the given ids in a single statement and returns the deleted rows, ids without
+     * a customer are skipped.
+     */
+    List<Customer> deleteAllById(List<Long> ids);
 
-    Customer updateCustomer(Customer customer);
+    /**
+     * Applies the non-null fields of the changes to every customer with one of the ids in a single statement,
+     * like {@link #updateCustomer}, and returns the rows that changed as they were before and after.
+     */
+    List<CustomerChange> updateAllById(List<Long> ids, Customer changes);
 }
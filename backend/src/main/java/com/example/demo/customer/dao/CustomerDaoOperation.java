@@ -0,0 +1,23 @@
+package com.example.demo.customer.dao;
+
+/**
+ * The {@link CustomerDao} operations that {@link RoutingCustomerDao} can send to different implementations.
+ */
+public enum CustomerDaoOperation {
+    FIND_ALL_CUSTOMERS,
+    FIND_CUSTOMERS_AFTER,
+    FIND_CUSTOMER_BY_ID,
+    SEARCH_CUSTOMERS,
+    SEARCH_CUSTOMER_IDS,
+    FIND_VERSION_BY_ID,
+    EXISTS_BY_EMAIL,
+    SAVE,
+    SAVE_IF_EMAIL_ABSENT,
+    SAVE_ALL,
+    EXISTS_BY_ID,
+    FIND_EXISTING_IDS,
+    DELETE_BY_ID,
+    UPDATE_CUSTOMER,
+    DELETE_ALL_BY_ID,
+    UPDATE_ALL_BY_ID
+}
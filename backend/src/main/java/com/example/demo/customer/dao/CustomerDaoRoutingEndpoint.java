@@ -0,0 +1,52 @@
+package com.example.demo.customer.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Shows and changes the routes of {@link RoutingCustomerDao} without a redeploy:
+ * <pre>
+ * POST /actuator/customerDaoRouting {"operation": "find-customer-by-id", "implementation": "jdbc"}
+ * DELETE /actuator/customerDaoRouting   resets every route to the configuration
+ * </pre>
+ * Not exposed over HTTP by default, see application.properties for serving it on a separate management port.
+ */
+@Component
+@Profile("!reactive")
+@Endpoint(id = "customerDaoRouting")
+@RequiredArgsConstructor
+public class CustomerDaoRoutingEndpoint {
+
+    private final RoutingCustomerDao routingCustomerDao;
+
+    @ReadOperation
+    public Map<CustomerDaoOperation, String> routes() {
+        return routingCustomerDao.getRoutes();
+    }
+
+    @WriteOperation
+    public Map<CustomerDaoOperation, String> route(CustomerDaoOperation operation, String implementation) {
+        // checked here, the repository proxy would translate the DAO's own check into a data access exception
+        if (!routingCustomerDao.getImplementations().contains(implementation)) {
+            String message = "Unknown CustomerDao implementation '%s', expected one of %s"
+                    .formatted(implementation, routingCustomerDao.getImplementations());
+            throw new InvalidEndpointRequestException(message, message);
+        }
+        routingCustomerDao.route(operation, implementation);
+        return routingCustomerDao.getRoutes();
+    }
+
+    @DeleteOperation
+    public Map<CustomerDaoOperation, String> reset() {
+        routingCustomerDao.reset();
+        return routingCustomerDao.getRoutes();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.customer.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The {@link CustomerDao}, {@code jdbc} or {@code jpa}, of each operation, for example
+ * {@code customer.dao.routing.operations.find-customer-by-id=jdbc}. Others go to the default.
+ */
+@ConfigurationProperties("customer.dao.routing")
+@Getter
+@Setter
+public class CustomerDaoRoutingProperties {
+
+    private String defaultImplementation = "jpa";
+
+    private Map<CustomerDaoOperation, String> operations = new EnumMap<>(CustomerDaoOperation.class);
+}
@@ -1,107 +1,426 @@
 package com.example.demo.customer.dao;
 
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerExportFormat;
+import com.example.demo.customer.model.CustomerSearchCriteria;
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.postgresql.PGConnection;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository("jdbc")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class CustomerJdbcDataAccessService implements CustomerDao {
 
+    public static final int STREAM_FETCH_SIZE = 500;
+    public static final int SAVE_ALL_CHUNK_SIZE = 1000;
+    public static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // the fields of the JSON API, the version stays internal there as well
+    private static final String EXPORT_COLUMNS = "ID, NAME, EMAIL, AGE";
+
     private final JdbcTemplate jdbcTemplate;
 
     @Override
     public List<Customer> findAllCustomers() {
-        String sql = "SELECT * FROM CUSTOMER";
-        RowMapper<Customer> rowMapper = new BeanPropertyRowMapper<>(Customer.class);
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER";
 
-        return jdbcTemplate.query(sql, rowMapper);
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE);
+    }
+
+    @Override
+    public List<Customer> findCustomersAfter(Long after, int limit) {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER WHERE ID > ? ORDER BY ID LIMIT ?";
+
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE, after, limit);
+    }
+
+    /**
+     * Passes every customer to the consumer as it is read. Needs a transaction, the driver only uses a cursor in one.
+     */
+    public void streamAllCustomers(Consumer<Customer> consumer) {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER ORDER BY ID";
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(
+                CustomerRowMapper.INSTANCE.mapRow(resultSet, resultSet.getRow())));
+    }
+
+    /**
+     * Counts the customers of every age, aggregated by the database in a single pass.
+     */
+    public Map<Integer, Long> countCustomersByAge() {
+        String sql = "SELECT AGE, COUNT(*) FROM CUSTOMER GROUP BY AGE";
+
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) resultSet ->
+                counts.put(resultSet.getInt(1), resultSet.getLong(2)));
+        return counts;
+    }
+
+    /**
+     * Counts the customers of every lower case email domain, the part after the last @.
+     */
+    public Map<String, Long> countCustomersByEmailDomain() {
+        String sql = "SELECT LOWER(SUBSTRING(EMAIL FROM '[^@]*$')), COUNT(*) FROM CUSTOMER GROUP BY 1";
+
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) resultSet ->
+                counts.put(resultSet.getString(1), resultSet.getLong(2)));
+        return counts;
+    }
+
+    /**
+     * Writes every customer with a header row to the stream as the database's COPY produces it, no row is mapped
+     * to a {@link Customer} on the way.
+     *
+     * @return the number of customers written
+     */
+    public long copyAllCustomers(CustomerExportFormat format, OutputStream outputStream) {
+        String sql = "COPY (SELECT " + EXPORT_COLUMNS + " FROM CUSTOMER ORDER BY ID) TO STDOUT " +
+                     "WITH (FORMAT CSV, HEADER, DELIMITER '" + format.getDelimiter() + "')";
+
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, outputStream);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    /**
+     * Streams CSV rows of import id, line, name, email and age into the import staging table with COPY. The reader
+     * is consumed in chunks of {@link #COPY_BUFFER_SIZE} characters, so the rows never have to be held in memory.
+     *
+     * @return the number of rows copied
+     */
+    public long copyIntoImportStaging(Reader rows) {
+        String sql = "COPY CUSTOMER_IMPORT (IMPORT_ID, LINE, NAME, EMAIL, AGE) FROM STDIN WITH (FORMAT CSV)";
+
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, rows, COPY_BUFFER_SIZE);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    /**
+     * Inserts the first line of every email of the import in one statement. Lines whose email is already taken,
+     * by a stored customer or an earlier line, are skipped; the inserted ones get their customer id.
+     *
+     * @return the number of customers created
+     */
+    public int mergeImport(UUID importId) {
+        String sql = "WITH FIRST_LINES AS (" +
+                     "SELECT DISTINCT ON (EMAIL) LINE, NAME, EMAIL, AGE FROM CUSTOMER_IMPORT " +
+                     "WHERE IMPORT_ID = ? ORDER BY EMAIL, LINE), " +
+                     "INSERTED AS (" +
+                     "INSERT INTO CUSTOMER (NAME, EMAIL, AGE) SELECT NAME, EMAIL, AGE FROM FIRST_LINES ORDER BY LINE " +
+                     "ON CONFLICT ON CONSTRAINT CUSTOMER_EMAIL_UNIQUE DO NOTHING RETURNING ID, EMAIL) " +
+                     "UPDATE CUSTOMER_IMPORT SET CUSTOMER_ID = INSERTED.ID " +
+                     "FROM INSERTED JOIN FIRST_LINES USING (EMAIL) " +
+                     "WHERE CUSTOMER_IMPORT.IMPORT_ID = ? AND CUSTOMER_IMPORT.LINE = FIRST_LINES.LINE";
+
+        // without statistics of the freshly copied rows the planner expects one and joins them in nested loops
+        jdbcTemplate.execute("ANALYZE CUSTOMER_IMPORT");
+        return jdbcTemplate.update(sql, importId, importId);
+    }
+
+    /**
+     * Passes the customers created by the import to the consumer as they are stored, version included, in line
+     * order. Like {@link #streamAllCustomers(Consumer)} it needs a transaction to read through a cursor.
+     */
+    public void streamImportedCustomers(UUID importId, Consumer<Customer> consumer) {
+        String sql = "SELECT " + CustomerRowMapper.columns("C") + " FROM CUSTOMER_IMPORT I " +
+                     "JOIN CUSTOMER C ON C.ID = I.CUSTOMER_ID WHERE I.IMPORT_ID = ? ORDER BY I.LINE";
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(STREAM_FETCH_SIZE);
+            preparedStatement.setObject(1, importId);
+
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(CustomerRowMapper.mapColumns(resultSet, 1)));
+    }
+
+    /**
+     * Returns the emails of up to {@code limit} lines of the import that were skipped by the merge, by line.
+     */
+    public Map<Long, String> findImportDuplicates(UUID importId, int limit) {
+        String sql = "SELECT LINE, EMAIL FROM CUSTOMER_IMPORT " +
+                     "WHERE IMPORT_ID = ? AND CUSTOMER_ID IS NULL ORDER BY LINE LIMIT ?";
+
+        Map<Long, String> duplicates = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) resultSet ->
+                duplicates.put(resultSet.getLong(1), resultSet.getString(2)), importId, limit);
+        return duplicates;
+    }
+
+    public void deleteImport(UUID importId) {
+        String sql = "DELETE FROM CUSTOMER_IMPORT WHERE IMPORT_ID = ?";
+
+        jdbcTemplate.update(sql, importId);
     }
 
     @Override
     public Optional<Customer> findCustomerById(Long id) {
-        String sql = "SELECT * FROM CUSTOMER WHERE ID = ?";
-        RowMapper<Customer> rowMapper = new BeanPropertyRowMapper<>(Customer.class);
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER WHERE ID = ?";
+
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Customer> searchCustomers(CustomerSearchCriteria criteria) {
+        return search(CustomerRowMapper.COLUMNS, CustomerRowMapper.INSTANCE, criteria);
+    }
+
+    @Override
+    public List<Long> searchCustomerIds(CustomerSearchCriteria criteria) {
+        return search("ID", new SingleColumnRowMapper<>(Long.class), criteria);
+    }
+
+    private <T> List<T> search(String columns, RowMapper<T> rowMapper, CustomerSearchCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        // LOWER matches the expressions of the trigram indexes
+        if (criteria.name() != null) {
+            conditions.add("LOWER(NAME) LIKE ?");
+            args.add(criteria.namePattern());
+        }
+
+        if (criteria.emailDomain() != null) {
+            conditions.add("LOWER(EMAIL) LIKE ?");
+            args.add(criteria.emailPattern());
+        }
+
+        if (criteria.minAge() != null) {
+            conditions.add("AGE >= ?");
+            args.add(criteria.minAge());
+        }
+
+        if (criteria.maxAge() != null) {
+            conditions.add("AGE <= ?");
+            args.add(criteria.maxAge());
+        }
+
+        String direction = criteria.direction().isAscending() ? "ASC" : "DESC";
+        String comparison = criteria.direction().isAscending() ? ">" : "<";
+        Customer after = criteria.after();
+        String orderBy = switch (criteria.sort()) {
+            case ID -> {
+                if (after != null) {
+                    conditions.add("ID " + comparison + " ?");
+                    args.add(after.getId());
+                }
+                yield "ID " + direction;
+            }
+            case NAME -> {
+                if (after != null) {
+                    conditions.add("(NAME, ID) " + comparison + " (?, ?)");
+                    args.add(after.getName());
+                    args.add(after.getId());
+                }
+                yield "NAME " + direction + ", ID " + direction;
+            }
+            case AGE -> {
+                if (after != null) {
+                    conditions.add("(AGE, ID) " + comparison + " (?, ?)");
+                    args.add(after.getAge());
+                    args.add(after.getId());
+                }
+                yield "AGE " + direction + ", ID " + direction;
+            }
+        };
 
-        return Optional.ofNullable(jdbcTemplate.queryForObject(sql, rowMapper, id));
+        String sql = "SELECT " + columns + " FROM CUSTOMER" +
+                     (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                     " ORDER BY " + orderBy +
+                     " LIMIT ?";
+        args.add(criteria.limit());
+
+        return jdbcTemplate.query(sql, rowMapper, args.toArray());
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        String sql = "SELECT VERSION FROM CUSTOMER WHERE ID = ?";
+
+        return jdbcTemplate.queryForList(sql, Long.class, id).stream().findFirst();
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        String sql = "SELECT * FROM CUSTOMER WHERE EMAIL = ?";
-        RowMapper<Customer> rowMapper = new BeanPropertyRowMapper<>(Customer.class);
+        String sql = "SELECT EXISTS(SELECT 1 FROM CUSTOMER WHERE EMAIL = ?)";
 
-        return !jdbcTemplate.query(sql, rowMapper, email).isEmpty();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, email));
     }
 
     @Override
     public Customer save(Customer newCustomer) {
-        String sql = "INSERT INTO CUSTOMER(name, email, age)" +
-                     "VALUES(?, ? ,?)";
+        String sql = "INSERT INTO CUSTOMER(name, email, age) " +
+                     "VALUES(?, ?, ?) " +
+                     "RETURNING " + CustomerRowMapper.COLUMNS;
 
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        Customer addedCustomer = new Customer();
+        return jdbcTemplate.queryForObject(sql, CustomerRowMapper.INSTANCE,
+                newCustomer.getName(),
+                newCustomer.getEmail(),
+                newCustomer.getAge());
+    }
 
-        jdbcTemplate.update(con -> {
-            PreparedStatement preparedStatement = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, newCustomer.getName());
-            preparedStatement.setString(2, newCustomer.getEmail());
-            preparedStatement.setInt(3, newCustomer.getAge());
+    @Override
+    public Optional<Customer> saveIfEmailAbsent(Customer newCustomer) {
+        String sql = "INSERT INTO CUSTOMER(name, email, age) " +
+                     "VALUES(?, ?, ?) " +
+                     "ON CONFLICT (email) DO NOTHING " +
+                     "RETURNING " + CustomerRowMapper.COLUMNS;
 
-            return preparedStatement;
-        }, keyHolder);
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE,
+                newCustomer.getName(),
+                newCustomer.getEmail(),
+                newCustomer.getAge()).stream().findFirst();
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> newCustomers) {
+        // one set-based statement per chunk instead of a round trip per customer
+        String sql = "INSERT INTO CUSTOMER(name, email, age) " +
+                     "SELECT * FROM UNNEST(?::text[], ?::text[], ?::int[]) " +
+                     "ON CONFLICT (email) DO NOTHING " +
+                     "RETURNING " + CustomerRowMapper.COLUMNS;
+        List<Customer> addedCustomers = new ArrayList<>(newCustomers.size());
 
-        addedCustomer.setId((Long) Objects.requireNonNull(keyHolder.getKeys()).get("id"));
-        addedCustomer.setName((String) keyHolder.getKeys().get("name"));
-        addedCustomer.setEmail((String) keyHolder.getKeys().get("email"));
-        addedCustomer.setAge((Integer) keyHolder.getKeys().get("age"));
+        for (int from = 0; from < newCustomers.size(); from += SAVE_ALL_CHUNK_SIZE) {
+            List<Customer> chunk = newCustomers.subList(from, Math.min(from + SAVE_ALL_CHUNK_SIZE, newCustomers.size()));
 
-        return addedCustomer;
+            addedCustomers.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement preparedStatement = con.prepareStatement(sql);
+                preparedStatement.setArray(1, con.createArrayOf("text",
+                        chunk.stream().map(Customer::getName).toArray()));
+                preparedStatement.setArray(2, con.createArrayOf("text",
+                        chunk.stream().map(Customer::getEmail).toArray()));
+                preparedStatement.setArray(3, con.createArrayOf("integer",
+                        chunk.stream().map(Customer::getAge).toArray()));
+
+                return preparedStatement;
+            }, CustomerRowMapper.INSTANCE));
+        }
+
+        return addedCustomers;
     }
 
     @Override
     public boolean existsById(Long id) {
-        String sql = "SELECT * FROM CUSTOMER WHERE ID = ?";
-        RowMapper<Customer> rowMapper = new BeanPropertyRowMapper<>(Customer.class);
+        String sql = "SELECT EXISTS(SELECT 1 FROM CUSTOMER WHERE ID = ?)";
 
-        return !jdbcTemplate.query(sql, rowMapper, id).isEmpty();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
 
     @Override
-    public void deleteById(Long id) {
-        String sql = "DELETE FROM CUSTOMER WHERE ID = ?";
+    public Optional<Customer> deleteById(Long id) {
+        String sql = "DELETE FROM CUSTOMER WHERE ID = ? RETURNING " + CustomerRowMapper.COLUMNS;
 
-        jdbcTemplate.update(sql, id);
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE, id).stream().findFirst();
     }
 
     @Override
-    public Customer updateCustomer(Customer customer) {
-        if (customer.getName() != null) {
-            String sql = "UPDATE CUSTOMER SET NAME = ? WHERE ID = ?";
-            jdbcTemplate.update(sql, customer.getName(), customer.getId());
+    public List<Long> findExistingIds(List<Long> ids) {
+        String sql = "SELECT ID FROM CUSTOMER WHERE ID = ANY(?)";
+
+        return jdbcTemplate.queryForList(sql, Long.class, (Object) ids.toArray(Long[]::new));
+    }
+
+    @Override
+    public Optional<CustomerChange> updateCustomer(Customer customer) {
+        return update("ID = ?", customer.getId(), customer).stream().findFirst();
+    }
+
+    // one array parameter, the statement stays the same for any number of ids
+    @Override
+    public List<Customer> deleteAllById(List<Long> ids) {
+        String sql = "DELETE FROM CUSTOMER WHERE ID = ANY(?) RETURNING " + CustomerRowMapper.COLUMNS;
+
+        return jdbcTemplate.query(sql, CustomerRowMapper.INSTANCE, (Object) ids.toArray(Long[]::new));
+    }
+
+    @Override
+    public List<CustomerChange> updateAllById(List<Long> ids, Customer changes) {
+        return update("ID = ANY(?)", ids.toArray(Long[]::new), changes);
+    }
+
+    private List<CustomerChange> update(String idCondition, Object id, Customer changes) {
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+
+        if (changes.getName() != null) {
+            columns.add("NAME");
+            values.add(changes.getName());
+        }
+
+        if (changes.getEmail() != null) {
+            columns.add("EMAIL");
+            values.add(changes.getEmail());
         }
 
-        if (customer.getEmail() != null) {
-            String sql = "UPDATE CUSTOMER SET EMAIL = ? WHERE ID = ?";
-            jdbcTemplate.update(sql, customer.getEmail(), customer.getId());
+        if (changes.getAge() != null) {
+            columns.add("AGE");
+            values.add(changes.getAge());
         }
 
-        if (customer.getAge() != null) {
-            String sql = "UPDATE CUSTOMER SET AGE = ? WHERE ID = ?";
-            jdbcTemplate.update(sql, customer.getAge(), customer.getId());
+        if (columns.isEmpty()) {
+            return List.of();
         }
 
-        return customer;
+        // the subquery keeps the old row for RETURNING and locks in id order against deadlocks
+        String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+        String sql = "UPDATE CUSTOMER SET " +
+                     columns.stream().map(column -> column + " = ?").collect(Collectors.joining(", ")) +
+                     " FROM (SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER WHERE " + idCondition +
+                     " ORDER BY ID FOR UPDATE) PREVIOUS" +
+                     " WHERE CUSTOMER.ID = PREVIOUS.ID AND (" +
+                     columns.stream().map(column -> "PREVIOUS." + column).collect(Collectors.joining(", ")) +
+                     ") IS DISTINCT FROM (" + placeholders + ")" +
+                     " RETURNING " + CustomerRowMapper.columns("PREVIOUS") + ", " + CustomerRowMapper.columns("CUSTOMER");
+
+        List<Object> args = new ArrayList<>(values);
+        args.add(id);
+        args.addAll(values);
+
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> new CustomerChange(
+                        CustomerRowMapper.mapColumns(resultSet, 1),
+                        CustomerRowMapper.mapColumns(resultSet, 6)),
+                args.toArray());
     }
 }
@@ -1,14 +1,23 @@
 package com.example.demo.customer.dao;
 
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.repository.CustomerChangeProjection;
+import com.example.demo.customer.repository.CustomerProjection;
 import com.example.demo.customer.repository.CustomerRepository;
+import com.example.demo.customer.repository.CustomerSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jpa")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class CustomerJpaDataAccessService implements CustomerDao {
 
@@ -19,11 +28,34 @@ public class CustomerJpaDataAccessService implements CustomerDao {
         return customerRepository.findAll();
     }
 
+    @Override
+    public List<Customer> findCustomersAfter(Long after, int limit) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
     @Override
     public Optional<Customer> findCustomerById(Long id) {
         return customerRepository.findById(id);
     }
 
+    @Override
+    public List<Customer> searchCustomers(CustomerSearchCriteria criteria) {
+        return customerRepository.findBy(CustomerSpecifications.matching(criteria), query -> query
+                .sortBy(CustomerSpecifications.sort(criteria))
+                .limit(criteria.limit())
+                .all());
+    }
+
+    @Override
+    public List<Long> searchCustomerIds(CustomerSearchCriteria criteria) {
+        return customerRepository.findIds(criteria);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return customerRepository.findVersionById(id);
+    }
+
     @Override
     public boolean existsByEmail(String email) {
         return customerRepository.existsByEmail(email);
@@ -34,18 +66,81 @@ public class CustomerJpaDataAccessService implements CustomerDao {
         return customerRepository.save(newCustomer);
     }
 
+    @Override
+    public Optional<Customer> saveIfEmailAbsent(Customer newCustomer) {
+        return customerRepository.insertIfEmailAbsent(newCustomer.getName(),
+                        newCustomer.getEmail(),
+                        newCustomer.getAge())
+                .map(CustomerJpaDataAccessService::toCustomer);
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> newCustomers) {
+        Set<String> existingEmails = customerRepository.findExistingEmails(newCustomers.stream()
+                .map(Customer::getEmail)
+                .toList());
+
+        return customerRepository.saveAll(newCustomers.stream()
+                .filter(customer -> !existingEmails.contains(customer.getEmail()))
+                .toList());
+    }
+
     @Override
     public boolean existsById(Long id) {
         return customerRepository.existsById(id);
     }
 
     @Override
-    public void deleteById(Long id) {
-        customerRepository.deleteById(id);
+    public List<Long> findExistingIds(List<Long> ids) {
+        return customerRepository.findExistingIds(ids);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        return customerRepository.deleteCustomerById(id)
+                .map(CustomerJpaDataAccessService::toCustomer);
+    }
+
+    @Override
+    public Optional<CustomerChange> updateCustomer(Customer customer) {
+        return customerRepository.updateCustomer(customer.getId(),
+                        customer.getName(),
+                        customer.getEmail(),
+                        customer.getAge())
+                .map(CustomerJpaDataAccessService::toChange);
+    }
+
+    @Override
+    public List<Customer> deleteAllById(List<Long> ids) {
+        return customerRepository.deleteCustomersByIds(ids.toArray(Long[]::new)).stream()
+                .map(CustomerJpaDataAccessService::toCustomer)
+                .toList();
     }
 
     @Override
-    public Customer updateCustomer(Customer customer) {
-        return customerRepository.save(customer);
+    public List<CustomerChange> updateAllById(List<Long> ids, Customer changes) {
+        return customerRepository.updateCustomersByIds(ids.toArray(Long[]::new),
+                        changes.getName(),
+                        changes.getEmail(),
+                        changes.getAge())
+                .stream()
+                .map(CustomerJpaDataAccessService::toChange)
+                .toList();
+    }
+
+    private static CustomerChange toChange(CustomerChangeProjection projection) {
+        return new CustomerChange(new Customer(projection.getId(),
+                projection.getPreviousName(),
+                projection.getPreviousEmail(),
+                projection.getPreviousAge(),
+                projection.getPreviousVersion()), toCustomer(projection));
+    }
+
+    private static Customer toCustomer(CustomerProjection projection) {
+        return new Customer(projection.getId(),
+                projection.getName(),
+                projection.getEmail(),
+                projection.getAge(),
+                projection.getVersion());
     }
 }
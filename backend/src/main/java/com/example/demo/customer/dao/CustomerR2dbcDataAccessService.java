@@ -0,0 +1,152 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository("r2dbc")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class CustomerR2dbcDataAccessService implements ReactiveCustomerDao {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Customer> findAllCustomers() {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER ORDER BY ID";
+
+        return databaseClient.sql(sql)
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> findCustomersAfter(Long after, int limit) {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER " +
+                     "WHERE ID > :after ORDER BY ID LIMIT :limit";
+
+        return databaseClient.sql(sql)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .all();
+    }
+
+    @Override
+    public Mono<Customer> findCustomerById(Long id) {
+        String sql = "SELECT " + CustomerRowMapper.COLUMNS + " FROM CUSTOMER WHERE ID = :id";
+
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> saveIfEmailAbsent(Customer newCustomer) {
+        String sql = "INSERT INTO CUSTOMER(name, email, age) " +
+                     "VALUES(:name, :email, :age) " +
+                     "ON CONFLICT (email) DO NOTHING " +
+                     "RETURNING " + CustomerRowMapper.COLUMNS;
+
+        return databaseClient.sql(sql)
+                .bind("name", newCustomer.getName())
+                .bind("email", newCustomer.getEmail())
+                .bind("age", newCustomer.getAge())
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .one();
+    }
+
+    @Override
+    public Flux<Customer> saveAll(List<Customer> newCustomers) {
+        String sql = "INSERT INTO CUSTOMER(name, email, age) " +
+                     "SELECT * FROM UNNEST(CAST(:names AS text[]), CAST(:emails AS text[]), CAST(:ages AS int[])) " +
+                     "ON CONFLICT (email) DO NOTHING " +
+                     "RETURNING " + CustomerRowMapper.COLUMNS;
+
+        // same chunking as the JDBC implementation, one statement at a time
+        return Flux.fromIterable(newCustomers)
+                .buffer(CustomerJdbcDataAccessService.SAVE_ALL_CHUNK_SIZE)
+                .concatMap(chunk -> databaseClient.sql(sql)
+                        .bind("names", chunk.stream().map(Customer::getName).toArray(String[]::new))
+                        .bind("emails", chunk.stream().map(Customer::getEmail).toArray(String[]::new))
+                        .bind("ages", chunk.stream().map(Customer::getAge).toArray(Integer[]::new))
+                        .map(CustomerR2dbcDataAccessService::toCustomer)
+                        .all());
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM CUSTOMER WHERE ID = :id)";
+
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(row -> Boolean.TRUE.equals(row.get(0, Boolean.class)))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        String sql = "DELETE FROM CUSTOMER WHERE ID = :id";
+
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(rowsUpdated -> rowsUpdated > 0);
+    }
+
+    @Override
+    public Mono<Customer> updateCustomer(Customer customer) {
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        if (customer.getName() != null) {
+            values.put("NAME", customer.getName());
+        }
+
+        if (customer.getEmail() != null) {
+            values.put("EMAIL", customer.getEmail());
+        }
+
+        if (customer.getAge() != null) {
+            values.put("AGE", customer.getAge());
+        }
+
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+
+        String sql = "UPDATE CUSTOMER SET " +
+                     values.keySet().stream()
+                             .map(column -> column + " = :" + column)
+                             .collect(Collectors.joining(", ")) +
+                     " WHERE ID = :ID AND (" + String.join(", ", values.keySet()) + ") IS DISTINCT FROM (" +
+                     values.keySet().stream().map(column -> ":" + column).collect(Collectors.joining(", ")) + ")" +
+                     " RETURNING " + CustomerRowMapper.COLUMNS;
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("ID", customer.getId());
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+
+        return spec.map(CustomerR2dbcDataAccessService::toCustomer).one();
+    }
+
+    private static Customer toCustomer(Readable row) {
+        return new Customer(row.get(0, Long.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Long.class));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the {@link #COLUMNS} of a customer row by position, without the reflection and per-row
+ * property lookups of a {@code BeanPropertyRowMapper}. Stateless, so a single instance is shared.
+ */
+public final class CustomerRowMapper implements RowMapper<Customer> {
+
+    public static final String COLUMNS = "ID, NAME, EMAIL, AGE, VERSION";
+    public static final CustomerRowMapper INSTANCE = new CustomerRowMapper();
+
+    private CustomerRowMapper() {
+    }
+
+    /**
+     * The {@link #COLUMNS} qualified with a table name or alias, for statements that read two rows at once.
+     */
+    public static String columns(String table) {
+        return table + ".ID, " + table + ".NAME, " + table + ".EMAIL, " + table + ".AGE, " + table + ".VERSION";
+    }
+
+    @Override
+    public Customer mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        return mapColumns(resultSet, 1);
+    }
+
+    /**
+     * Maps the {@link #COLUMNS} starting at the given column, for rows that carry more than one customer.
+     */
+    public static Customer mapColumns(ResultSet resultSet, int firstColumn) throws SQLException {
+        return new Customer(resultSet.getLong(firstColumn),
+                resultSet.getString(firstColumn + 1),
+                resultSet.getString(firstColumn + 2),
+                resultSet.getInt(firstColumn + 3),
+                resultSet.getLong(firstColumn + 4));
+    }
+}
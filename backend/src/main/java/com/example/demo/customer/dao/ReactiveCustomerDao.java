@@ -0,0 +1,41 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link CustomerDao}, with the same semantics for every operation.
+ */
+public interface ReactiveCustomerDao {
+
+    Flux<Customer> findAllCustomers();
+
+    Flux<Customer> findCustomersAfter(Long after, int limit);
+
+    Mono<Customer> findCustomerById(Long id);
+
+    /**
+     * Completes empty when the email is already taken.
+     */
+    Mono<Customer> saveIfEmailAbsent(Customer newCustomer);
+
+    /**
+     * Inserts the customers whose email is not taken yet and emits the inserted rows.
+     */
+    Flux<Customer> saveAll(List<Customer> newCustomers);
+
+    Mono<Boolean> existsById(Long id);
+
+    /**
+     * Emits false when no customer with the id exists.
+     */
+    Mono<Boolean> deleteById(Long id);
+
+    /**
+     * Completes empty when the row does not exist or when none of the given values differ from the stored ones.
+     */
+    Mono<Customer> updateCustomer(Customer customer);
+}
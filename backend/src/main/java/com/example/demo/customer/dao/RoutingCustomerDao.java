@@ -0,0 +1,151 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sends every operation to the {@link CustomerDao} configured for it in {@link CustomerDaoRoutingProperties}.
+ * Routes can be changed at runtime through {@link #route} and reset with {@link #reset}.
+ */
+@Repository("routing")
+@Profile("!reactive")
+public class RoutingCustomerDao implements CustomerDao {
+
+    private final Map<String, CustomerDao> implementations;
+    private final CustomerDaoRoutingProperties properties;
+
+    // replaced as a whole on every change, readers never see a half-updated table
+    private volatile Map<CustomerDaoOperation, String> routes;
+
+    // Spring leaves this bean out of the map, it only contains the jdbc and jpa implementations
+    public RoutingCustomerDao(Map<String, CustomerDao> implementations, CustomerDaoRoutingProperties properties) {
+        this.implementations = Map.copyOf(implementations);
+        this.properties = properties;
+        reset();
+    }
+
+    public Map<CustomerDaoOperation, String> getRoutes() {
+        return routes;
+    }
+
+    public Set<String> getImplementations() {
+        return implementations.keySet();
+    }
+
+    public synchronized void route(CustomerDaoOperation operation, String implementation) {
+        Map<CustomerDaoOperation, String> updatedRoutes = new EnumMap<>(routes);
+        updatedRoutes.put(operation, requireImplementation(implementation));
+        routes = Collections.unmodifiableMap(updatedRoutes);
+    }
+
+    public synchronized void reset() {
+        Map<CustomerDaoOperation, String> configuredRoutes = new EnumMap<>(CustomerDaoOperation.class);
+        for (CustomerDaoOperation operation : CustomerDaoOperation.values()) {
+            configuredRoutes.put(operation, requireImplementation(properties.getOperations()
+                    .getOrDefault(operation, properties.getDefaultImplementation())));
+        }
+        routes = Collections.unmodifiableMap(configuredRoutes);
+    }
+
+    private String requireImplementation(String implementation) {
+        if (!implementations.containsKey(implementation)) {
+            throw new IllegalArgumentException("Unknown CustomerDao implementation '%s', expected one of %s"
+                    .formatted(implementation, implementations.keySet()));
+        }
+        return implementation;
+    }
+
+    private CustomerDao to(CustomerDaoOperation operation) {
+        return implementations.get(routes.get(operation));
+    }
+
+    @Override
+    public List<Customer> findAllCustomers() {
+        return to(CustomerDaoOperation.FIND_ALL_CUSTOMERS).findAllCustomers();
+    }
+
+    @Override
+    public List<Customer> findCustomersAfter(Long after, int limit) {
+        return to(CustomerDaoOperation.FIND_CUSTOMERS_AFTER).findCustomersAfter(after, limit);
+    }
+
+    @Override
+    public Optional<Customer> findCustomerById(Long id) {
+        return to(CustomerDaoOperation.FIND_CUSTOMER_BY_ID).findCustomerById(id);
+    }
+
+    @Override
+    public List<Customer> searchCustomers(CustomerSearchCriteria criteria) {
+        return to(CustomerDaoOperation.SEARCH_CUSTOMERS).searchCustomers(criteria);
+    }
+
+    @Override
+    public List<Long> searchCustomerIds(CustomerSearchCriteria criteria) {
+        return to(CustomerDaoOperation.SEARCH_CUSTOMER_IDS).searchCustomerIds(criteria);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return to(CustomerDaoOperation.FIND_VERSION_BY_ID).findVersionById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return to(CustomerDaoOperation.EXISTS_BY_EMAIL).existsByEmail(email);
+    }
+
+    @Override
+    public Customer save(Customer newCustomer) {
+        return to(CustomerDaoOperation.SAVE).save(newCustomer);
+    }
+
+    @Override
+    public Optional<Customer> saveIfEmailAbsent(Customer newCustomer) {
+        return to(CustomerDaoOperation.SAVE_IF_EMAIL_ABSENT).saveIfEmailAbsent(newCustomer);
+    }
+
+    @Override
+    public List<Customer> saveAll(List<Customer> newCustomers) {
+        return to(CustomerDaoOperation.SAVE_ALL).saveAll(newCustomers);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return to(CustomerDaoOperation.EXISTS_BY_ID).existsById(id);
+    }
+
+    @Override
+    public List<Long> findExistingIds(List<Long> ids) {
+        return to(CustomerDaoOperation.FIND_EXISTING_IDS).findExistingIds(ids);
+    }
+
+    @Override
+    public Optional<Customer> deleteById(Long id) {
+        return to(CustomerDaoOperation.DELETE_BY_ID).deleteById(id);
+    }
+
+    @Override
+    public Optional<CustomerChange> updateCustomer(Customer customer) {
+        return to(CustomerDaoOperation.UPDATE_CUSTOMER).updateCustomer(customer);
+    }
+
+    @Override
+    public List<Customer> deleteAllById(List<Long> ids) {
+        return to(CustomerDaoOperation.DELETE_ALL_BY_ID).deleteAllById(ids);
+    }
+
+    @Override
+    public List<CustomerChange> updateAllById(List<Long> ids, Customer changes) {
+        return to(CustomerDaoOperation.UPDATE_ALL_BY_ID).updateAllById(ids, changes);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.customer.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Takes ids from a sequence that increments by one, {@code fetchSize} of them per round trip.
+ */
+@IdGeneratorType(BatchedSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface BatchedSequence {
+
+    String name();
+
+    int fetchSize() default 50;
+}
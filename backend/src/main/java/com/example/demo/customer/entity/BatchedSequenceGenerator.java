@@ -0,0 +1,53 @@
+package com.example.demo.customer.entity;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+// not pooled, the column default shares the sequence and would use up a whole pool per insert
+public class BatchedSequenceGenerator implements IdentifierGenerator {
+
+    private final String sql;
+    private final Queue<Long> ids = new ArrayDeque<>();
+
+    public BatchedSequenceGenerator(BatchedSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sql = "SELECT nextval('" + config.name() + "') FROM generate_series(1, " + config.fetchSize() + ")";
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (ids.isEmpty()) {
+            fetch(session);
+        }
+        return ids.poll();
+    }
+
+    private void fetch(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+        try {
+            ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement, sql);
+            try {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            } finally {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(resultSet, statement);
+            }
+        } catch (SQLException exception) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(exception, "Could not fetch customer ids", sql);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+}
@@ -1,11 +1,9 @@
 package com.example.demo.customer.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -19,18 +17,14 @@ import lombok.Setter;
 @NoArgsConstructor
 @Getter
 @Setter
-@EqualsAndHashCode(exclude = "id")
+@EqualsAndHashCode(exclude = {"id", "version"})
 @Table(uniqueConstraints = {
         @UniqueConstraint(name = "customer_email_unique", columnNames = "email")
 })
 public class Customer {
 
     @Id
-    @SequenceGenerator(name = "customer_id_seq",
-            sequenceName = "customer_id_seq",
-            allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE,
-            generator = "customer_id_seq")
+    @BatchedSequence(name = "customer_id_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -41,4 +35,16 @@ public class Customer {
 
     @Column(nullable = false)
     private Integer age;
+
+    // new rows start at the column default, a trigger increments it on every update
+    @Column(nullable = false, updatable = false)
+    @JsonIgnore
+    private Long version = 0L;
+
+    public Customer(Long id, String name, String email, Integer age) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.age = age;
+    }
 }
@@ -0,0 +1,131 @@
+package com.example.demo.customer.event;
+
+import com.example.demo.customer.model.CustomerChangeNotification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Publishes the notifications of the customer trigger as {@link CustomerChangeNotification}s from one LISTEN
+ * connection per instance. Notifications sent while it reconnects are lost.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class CustomerChangeListener implements SmartLifecycle {
+
+    public static final String CHANNEL = "customer_changes";
+
+    // how long a poll waits for notifications, bounds the time stop() takes to be noticed
+    private static final int POLL_TIMEOUT_MILLIS = 1_000;
+
+    private final DataSource dataSource;
+    private final ObjectReader notificationReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public CustomerChangeListener(DataSourceProperties dataSourceProperties,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${customer.change-stream.reconnect-delay:5s}") Duration reconnectDelay) {
+        // not from the pool, it is held for good and must reach the primary
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.notificationReader = objectMapper.readerFor(CustomerChangeNotification.class);
+        this.eventPublisher = eventPublisher;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this::listen, "customer-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Whether the LISTEN is in place, changes committed from now on are published.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+                log.info("Listening for customer changes on channel {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            publish(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException exception) {
+                if (running) {
+                    log.warn("Customer change listener lost its connection, retrying in {}", reconnectDelay,
+                            exception);
+                }
+            } finally {
+                listening = false;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void publish(String payload) {
+        try {
+            eventPublisher.publishEvent(notificationReader.<CustomerChangeNotification>readValue(payload));
+        } catch (JsonProcessingException exception) {
+            log.warn("Ignoring malformed customer change notification {}", payload, exception);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.customer.event;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+
+/**
+ * Published by the customer service after a customer was created, updated or deleted.
+ * The customer is the stored state after the change, or null for a deletion, the previous customer is the stored
+ * state before it, or null for a creation.
+ */
+public record CustomerChangedEvent(ChangeType type, Long id, Customer customer, Customer previous) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static CustomerChangedEvent created(Customer customer) {
+        return new CustomerChangedEvent(ChangeType.CREATED, customer.getId(), customer, null);
+    }
+
+    public static CustomerChangedEvent updated(CustomerChange change) {
+        return new CustomerChangedEvent(ChangeType.UPDATED, change.getCurrent().getId(), change.getCurrent(),
+                change.getPrevious());
+    }
+
+    public static CustomerChangedEvent deleted(Customer previous) {
+        return new CustomerChangedEvent(ChangeType.DELETED, previous.getId(), null, previous);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.customer.metrics;
+
+import com.example.demo.exception.DuplicateResourceException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.exception.RequestValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Records a {@value #OPERATION_TIMER} timer for every call into the blocking customer controller, service and
+ * DAO layers, tagged with the layer, the operation, the implementation and the outcome. Every call of a
+ * {@link com.example.demo.customer.dao.CustomerDao} operation also counts as a {@value #ROUND_TRIP_COUNTER}, since it
+ * is only reached when the customer cache could not answer.
+ * The aspect wraps the cache interceptor, so service timings include cache hits.
+ */
+@Aspect
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CustomerMetricsAspect {
+
+    public static final String OPERATION_TIMER = "customer.operation";
+    public static final String ROUND_TRIP_COUNTER = "customer.dao.round.trips";
+
+    static final String OK = "ok";
+    static final String NOT_FOUND = "not_found";
+    // an update that changed no row, the DAO cannot tell a missing customer from one that already had the values
+    static final String UNCHANGED_OR_MISSING = "unchanged_or_missing";
+    static final String DUPLICATE = "duplicate";
+    static final String INVALID = "invalid";
+    static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.example.demo.customer.controller.CustomerController.*(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("controller", joinPoint);
+    }
+
+    @Around("execution(public * com.example.demo.customer.service.CustomerService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service", joinPoint);
+    }
+
+    // CustomerDao operations only, timed on the implementation the routing DAO delegates to
+    @Around("execution(* com.example.demo.customer.dao.CustomerDao.*(..)) " +
+            "&& !within(com.example.demo.customer.dao.RoutingCustomerDao)")
+    public Object timeDao(ProceedingJoinPoint joinPoint) throws Throwable {
+        Counter.builder(ROUND_TRIP_COUNTER)
+                .tag("operation", joinPoint.getSignature().getName())
+                .tag("implementation", implementation(joinPoint))
+                .register(meterRegistry)
+                .increment();
+        return time("dao", joinPoint);
+    }
+
+    private Object time(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = outcome(operation, result);
+            return result;
+        } catch (Throwable throwable) {
+            outcome = outcome(throwable);
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder(OPERATION_TIMER)
+                    .tag("layer", layer)
+                    .tag("operation", operation)
+                    .tag("implementation", implementation(joinPoint))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // the DAOs report misses through their return values instead of exceptions
+    static String outcome(String operation, Object result) {
+        if (result instanceof Optional<?> optional && optional.isEmpty()) {
+            return switch (operation) {
+                case "saveIfEmailAbsent" -> DUPLICATE;
+                case "updateCustomer" -> UNCHANGED_OR_MISSING;
+                default -> NOT_FOUND;
+            };
+        }
+        return OK;
+    }
+
+    static String outcome(Throwable throwable) {
+        if (throwable instanceof NotFoundException) {
+            return NOT_FOUND;
+        }
+        if (throwable instanceof DuplicateResourceException) {
+            return DUPLICATE;
+        }
+        if (throwable instanceof RequestValidationException) {
+            return INVALID;
+        }
+        return ERROR;
+    }
+
+    // the repository bean name, jdbc or jpa, for the DAOs and the class name for the other layers
+    private static String implementation(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Repository repository = AnnotationUtils.findAnnotation(targetClass, Repository.class);
+        if (repository != null && !repository.value().isEmpty()) {
+            return repository.value();
+        }
+        return targetClass.getSimpleName();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.customer.model;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    UNCHANGED,
+    DELETED,
+    NOT_FOUND,
+    DUPLICATE,
+    INVALID
+}
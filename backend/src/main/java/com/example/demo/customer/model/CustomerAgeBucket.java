@@ -0,0 +1,16 @@
+package com.example.demo.customer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CustomerAgeBucket {
+
+    private int fromAge;
+
+    // inclusive, null for the last bucket
+    private Integer toAge;
+
+    private long count;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.customer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerBatchItemResult {
+
+    // position of the item in the request
+    private int index;
+
+    private Long id;
+
+    private BatchItemStatus status;
+
+    private String error;
+}
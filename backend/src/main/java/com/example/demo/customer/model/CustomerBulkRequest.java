@@ -0,0 +1,20 @@
+package com.example.demo.customer.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Targets a bulk operation either at the listed ids or at every customer matching the filter.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerBulkRequest {
+
+    private List<Long> ids;
+
+    private CustomerFilter filter;
+}
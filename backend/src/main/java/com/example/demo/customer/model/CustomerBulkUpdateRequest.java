@@ -0,0 +1,16 @@
+package com.example.demo.customer.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Applies the same non-null fields of the changes to every targeted customer.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerBulkUpdateRequest extends CustomerBulkRequest {
+
+    private CustomerUpdateRequest changes;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.customer.model;
+
+import com.example.demo.customer.entity.Customer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A customer row before and after an update, read by the same statement.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CustomerChange {
+
+    private Customer previous;
+
+    private Customer current;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.customer.model;
+
+import com.example.demo.customer.event.CustomerChangedEvent.ChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A committed change of a customer with its version after the change, or only the count of a statement that changed
+ * too many customers to announce one by one.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerChangeNotification {
+
+    private ChangeType type;
+
+    private Long id;
+
+    private Long version;
+
+    private Long count;
+
+    public CustomerChangeNotification(ChangeType type, Long id, Long version) {
+        this(type, id, version, null);
+    }
+}
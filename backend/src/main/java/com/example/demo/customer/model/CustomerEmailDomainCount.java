@@ -0,0 +1,13 @@
+package com.example.demo.customer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CustomerEmailDomainCount {
+
+    private String domain;
+
+    private long count;
+}
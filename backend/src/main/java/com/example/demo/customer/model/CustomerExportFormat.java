@@ -0,0 +1,21 @@
+package com.example.demo.customer.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formats of the raw customer export, written by the database's COPY with a header row. TSV is CSV with tabs,
+ * values containing tabs, quotes or line breaks are quoted.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CustomerExportFormat {
+    CSV("text/csv", ',', "csv"),
+    TSV("text/tab-separated-values", '\t', "tsv");
+
+    private final String mediaType;
+
+    private final char delimiter;
+
+    private final String fileExtension;
+}
@@ -0,0 +1,25 @@
+package com.example.demo.customer.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Selects customers by name, email domain and age, every given field has to match.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerFilter {
+
+    private String name;
+
+    private CustomerNameMatch nameMatch = CustomerNameMatch.PREFIX;
+
+    // matches the part after the @, with or without a leading @
+    private String emailDomain;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+}
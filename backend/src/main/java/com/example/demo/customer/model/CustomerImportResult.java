@@ -0,0 +1,21 @@
+package com.example.demo.customer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class CustomerImportResult {
+
+    private long created;
+
+    // lines whose email is already taken, by a stored customer or an earlier line
+    private long duplicates;
+
+    private long invalid;
+
+    // the first rejected lines, the index is the line number in the upload with the header on line 1
+    private List<CustomerBatchItemResult> rejected;
+}
@@ -0,0 +1,5 @@
+package com.example.demo.customer.model;
+
+public enum CustomerNameMatch {
+    PREFIX, CONTAINS
+}
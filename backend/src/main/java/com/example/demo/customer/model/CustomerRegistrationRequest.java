@@ -1,6 +1,7 @@
 package com.example.demo.customer.model;
 
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,11 +12,14 @@ import lombok.Setter;
 @Getter
 public class CustomerRegistrationRequest {
 
-    @NotNull
+    // the rules of every registration, single, batch and import, the customer table requires all three
+    @NotBlank
     private String name;
 
+    @NotBlank
     @Email
     private String email;
 
+    @NotNull
     private Integer age;
 }
@@ -0,0 +1,48 @@
+package com.example.demo.customer.model;
+
+import com.example.demo.customer.entity.Customer;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A validated customer search as the DAOs run it. Null filters are not applied, the name and email domain are
+ * already lower case. {@code after} is the last customer of the previous page, only its id and the sorted
+ * column are set, and null for the first page.
+ */
+public record CustomerSearchCriteria(String name,
+                                     CustomerNameMatch nameMatch,
+                                     String emailDomain,
+                                     Integer minAge,
+                                     Integer maxAge,
+                                     CustomerSearchSort sort,
+                                     Sort.Direction direction,
+                                     Customer after,
+                                     int limit) {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * The LIKE pattern for the lower case name, wildcards in the search text match literally.
+     */
+    public String namePattern() {
+        String escaped = escapeLike(name);
+        return nameMatch == CustomerNameMatch.CONTAINS ? "%" + escaped + "%" : escaped + "%";
+    }
+
+    /**
+     * The LIKE pattern for the lower case email.
+     */
+    public String emailPattern() {
+        return "%@" + escapeLike(emailDomain);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
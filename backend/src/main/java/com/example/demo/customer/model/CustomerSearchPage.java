@@ -0,0 +1,17 @@
+package com.example.demo.customer.model;
+
+import com.example.demo.customer.entity.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class CustomerSearchPage {
+
+    private List<Customer> customers;
+
+    // opaque position after the last customer in the page, null when there are no more pages
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.customer.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Sort;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class CustomerSearchRequest extends CustomerFilter {
+
+    private CustomerSearchSort sort = CustomerSearchSort.ID;
+
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    // the X-Next-Cursor of the previous page
+    private String after;
+
+    private Integer limit;
+}
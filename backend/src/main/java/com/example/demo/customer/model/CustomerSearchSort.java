@@ -0,0 +1,8 @@
+package com.example.demo.customer.model;
+
+/**
+ * Orders of the customer search, every one of them is served by an index on the column and the id.
+ */
+public enum CustomerSearchSort {
+    ID, NAME, AGE
+}
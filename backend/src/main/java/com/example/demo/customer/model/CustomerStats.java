@@ -0,0 +1,18 @@
+package com.example.demo.customer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class CustomerStats {
+
+    private long count;
+
+    private List<CustomerAgeBucket> ageHistogram;
+
+    // the most common domains first
+    private List<CustomerEmailDomainCount> topEmailDomains;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.customer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CustomerSuggestion {
+
+    private Long id;
+
+    private String name;
+}
@@ -0,0 +1,13 @@
+package com.example.demo.customer.repository;
+
+// the updated row and, under the previous prefix, its values before the update
+public interface CustomerChangeProjection extends CustomerProjection {
+
+    String getPreviousName();
+
+    String getPreviousEmail();
+
+    Integer getPreviousAge();
+
+    Long getPreviousVersion();
+}
@@ -0,0 +1,14 @@
+package com.example.demo.customer.repository;
+
+import com.example.demo.customer.model.CustomerSearchCriteria;
+
+import java.util.List;
+
+/**
+ * The customer search of {@link CustomerSpecifications} selecting only the ids, the fluent query of
+ * {@link CustomerRepository#findBy} always loads the entities.
+ */
+public interface CustomerIdSearch {
+
+    List<Long> findIds(CustomerSearchCriteria criteria);
+}
@@ -0,0 +1,33 @@
+package com.example.demo.customer.repository;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CustomerIdSearchImpl implements CustomerIdSearch {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(CustomerSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Customer> root = query.from(Customer.class);
+
+        query.select(root.get("id"))
+                .where(CustomerSpecifications.matching(criteria).toPredicate(root, query, cb))
+                .orderBy(QueryUtils.toOrders(CustomerSpecifications.sort(criteria), root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(criteria.limit())
+                .getResultList();
+    }
+}
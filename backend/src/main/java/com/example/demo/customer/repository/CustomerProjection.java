@@ -0,0 +1,15 @@
+package com.example.demo.customer.repository;
+
+// plain row view for native statements, so their results never resolve to an already managed (stale) entity
+public interface CustomerProjection {
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    Integer getAge();
+
+    Long getVersion();
+}
@@ -1,8 +1,95 @@
 package com.example.demo.customer.repository;
 
 import com.example.demo.customer.entity.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer>,
+        CustomerIdSearch {
     boolean existsByEmail(String email);
+
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Transactional
+    @Query(value = "DELETE FROM customer WHERE id = :id RETURNING id, name, email, age, version",
+            nativeQuery = true)
+    Optional<CustomerProjection> deleteCustomerById(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // the ids are bound as one array, an IN list would need a parameter per id
+    @Transactional
+    @Query(value = "DELETE FROM customer WHERE id = ANY(:ids) RETURNING id, name, email, age, version",
+            nativeQuery = true)
+    List<CustomerProjection> deleteCustomersByIds(@Param("ids") Long[] ids);
+
+    // the id comes from the column default, an email conflict returns no row instead of failing
+    @Transactional
+    @Query(value = "INSERT INTO customer(name, email, age) " +
+                   "VALUES (:name, :email, :age) " +
+                   "ON CONFLICT (email) DO NOTHING " +
+                   "RETURNING id, name, email, age, version",
+            nativeQuery = true)
+    Optional<CustomerProjection> insertIfEmailAbsent(@Param("name") String name,
+                                                     @Param("email") String email,
+                                                     @Param("age") Integer age);
+
+    // null keeps the stored value, unchanged rows are not touched, the subquery keeps the old row for RETURNING
+    @Transactional
+    @Query(value = "UPDATE customer SET " +
+                   "name = COALESCE(CAST(:name AS text), previous.name), " +
+                   "email = COALESCE(CAST(:email AS text), previous.email), " +
+                   "age = COALESCE(CAST(:age AS integer), previous.age) " +
+                   "FROM (SELECT id, name, email, age, version FROM customer WHERE id = :id FOR UPDATE) previous " +
+                   "WHERE customer.id = previous.id " +
+                   "AND (previous.name, previous.email, previous.age) IS DISTINCT FROM (" +
+                   "COALESCE(CAST(:name AS text), previous.name), " +
+                   "COALESCE(CAST(:email AS text), previous.email), " +
+                   "COALESCE(CAST(:age AS integer), previous.age)) " +
+                   "RETURNING customer.id, customer.name, customer.email, customer.age, customer.version, " +
+                   "previous.name AS \"previousName\", previous.email AS \"previousEmail\", " +
+                   "previous.age AS \"previousAge\", previous.version AS \"previousVersion\"",
+            nativeQuery = true)
+    Optional<CustomerChangeProjection> updateCustomer(@Param("id") Long id,
+                                                @Param("name") String name,
+                                                @Param("email") String email,
+                                                @Param("age") Integer age);
+
+    // as updateCustomer for many rows, locked in id order so overlapping bulk updates cannot deadlock
+    @Transactional
+    @Query(value = "UPDATE customer SET " +
+                   "name = COALESCE(CAST(:name AS text), previous.name), " +
+                   "email = COALESCE(CAST(:email AS text), previous.email), " +
+                   "age = COALESCE(CAST(:age AS integer), previous.age) " +
+                   "FROM (SELECT id, name, email, age, version FROM customer WHERE id = ANY(:ids) " +
+                   "ORDER BY id FOR UPDATE) previous " +
+                   "WHERE customer.id = previous.id " +
+                   "AND (previous.name, previous.email, previous.age) IS DISTINCT FROM (" +
+                   "COALESCE(CAST(:name AS text), previous.name), " +
+                   "COALESCE(CAST(:email AS text), previous.email), " +
+                   "COALESCE(CAST(:age AS integer), previous.age)) " +
+                   "RETURNING customer.id, customer.name, customer.email, customer.age, customer.version, " +
+                   "previous.name AS \"previousName\", previous.email AS \"previousEmail\", " +
+                   "previous.age AS \"previousAge\", previous.version AS \"previousVersion\"",
+            nativeQuery = true)
+    List<CustomerChangeProjection> updateCustomersByIds(@Param("ids") Long[] ids,
+                                                        @Param("name") String name,
+                                                        @Param("email") String email,
+                                                        @Param("age") Integer age);
 }
@@ -0,0 +1,89 @@
+package com.example.demo.customer.repository;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The customer search for {@link CustomerRepository#findBy}, with the same filters and keyset order as the
+ * JDBC search, so both can be routed to interchangeably.
+ */
+public final class CustomerSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<Customer> matching(CustomerSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // lower matches the expressions of the trigram indexes
+            if (criteria.name() != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")), criteria.namePattern(), LIKE_ESCAPE));
+            }
+
+            if (criteria.emailDomain() != null) {
+                predicates.add(cb.like(cb.lower(root.get("email")), criteria.emailPattern(), LIKE_ESCAPE));
+            }
+
+            if (criteria.minAge() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("age"), criteria.minAge()));
+            }
+
+            if (criteria.maxAge() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("age"), criteria.maxAge()));
+            }
+
+            Customer after = criteria.after();
+            if (after != null) {
+                boolean ascending = criteria.direction().isAscending();
+                Path<Long> id = root.get("id");
+                switch (criteria.sort()) {
+                    case ID -> predicates.add(beyond(cb, id, after.getId(), ascending));
+                    case NAME -> predicates.add(keyset(cb, root.get("name"), after.getName(), id, after.getId(),
+                            ascending));
+                    case AGE -> predicates.add(keyset(cb, root.get("age"), after.getAge(), id, after.getId(),
+                            ascending));
+                }
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Sort sort(CustomerSearchCriteria criteria) {
+        return switch (criteria.sort()) {
+            case ID -> Sort.by(criteria.direction(), "id");
+            case NAME -> Sort.by(criteria.direction(), "name", "id");
+            case AGE -> Sort.by(criteria.direction(), "age", "id");
+        };
+    }
+
+    // the criteria API has no row comparison, the bound on the column alone keeps the scan an index range
+    private static <T extends Comparable<? super T>> Predicate keyset(CriteriaBuilder cb,
+                                                                      Expression<T> column, T value,
+                                                                      Path<Long> id, Long afterId,
+                                                                      boolean ascending) {
+        Predicate bound = ascending
+                ? cb.greaterThanOrEqualTo(column, value)
+                : cb.lessThanOrEqualTo(column, value);
+        Predicate next = cb.or(beyond(cb, column, value, ascending),
+                cb.and(cb.equal(column, value), beyond(cb, id, afterId, ascending)));
+        return cb.and(bound, next);
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb, Expression<T> column,
+                                                                      T value, boolean ascending) {
+        return ascending ? cb.greaterThan(column, value) : cb.lessThan(column, value);
+    }
+}
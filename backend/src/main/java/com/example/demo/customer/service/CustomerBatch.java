@@ -0,0 +1,107 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.exception.RequestValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validation and result bookkeeping of a bulk registration, shared by the blocking and the reactive batch path.
+ * {@link #of(List, Validator)} validates the items against the constraints of {@link CustomerRegistrationRequest},
+ * the caller inserts {@link #getNewCustomers()} in one go and passes the inserted rows to {@link #complete(List)}.
+ */
+class CustomerBatch {
+
+    private final CustomerBatchItemResult[] results;
+    private final Map<String, Integer> indexByEmail = new LinkedHashMap<>();
+    private final List<Customer> newCustomers;
+
+    private CustomerBatch(int size) {
+        this.results = new CustomerBatchItemResult[size];
+        this.newCustomers = new ArrayList<>(size);
+    }
+
+    static CustomerBatch of(List<CustomerRegistrationRequest> customers, Validator validator) {
+        if (customers == null || customers.isEmpty() || customers.size() > CustomerBatchService.MAX_BATCH_SIZE) {
+            throw new RequestValidationException(ValidationUtils.INVALID_BATCH_SIZE
+                    .formatted(CustomerBatchService.MAX_BATCH_SIZE));
+        }
+
+        CustomerBatch batch = new CustomerBatch(customers.size());
+        for (int index = 0; index < customers.size(); index++) {
+            CustomerRegistrationRequest customer = customers.get(index);
+            String error = validate(customer, validator);
+
+            if (error != null) {
+                batch.results[index] = new CustomerBatchItemResult(index, null, BatchItemStatus.INVALID, error);
+            } else if (batch.indexByEmail.putIfAbsent(customer.getEmail(), index) != null) {
+                batch.results[index] = duplicate(index, customer.getEmail());
+            } else {
+                batch.newCustomers.add(new Customer(null, customer.getName(), customer.getEmail(), customer.getAge()));
+            }
+        }
+
+        return batch;
+    }
+
+    List<Customer> getNewCustomers() {
+        return Collections.unmodifiableList(newCustomers);
+    }
+
+    /**
+     * Marks the customers that were inserted as created and the remaining valid ones as duplicates of stored emails.
+     */
+    List<CustomerBatchItemResult> complete(List<Customer> savedCustomers) {
+        Map<String, Customer> savedByEmail = savedCustomers.stream()
+                .collect(Collectors.toMap(Customer::getEmail, Function.identity()));
+
+        indexByEmail.forEach((email, index) -> {
+            Customer saved = savedByEmail.get(email);
+            results[index] = saved == null
+                    ? duplicate(index, email)
+                    : new CustomerBatchItemResult(index, saved.getId(), BatchItemStatus.CREATED, null);
+        });
+
+        return Arrays.asList(results);
+    }
+
+    // the same constraints as a single registration, reported as the error of the first invalid field
+    static String validate(CustomerRegistrationRequest customer, Validator validator) {
+        if (customer == null) {
+            return ValidationUtils.NAME_REQUIRED;
+        }
+
+        Set<String> invalidFields = validator.validate(customer).stream()
+                .map(ConstraintViolation::getPropertyPath)
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+        if (invalidFields.contains("name")) {
+            return ValidationUtils.NAME_REQUIRED;
+        }
+        if (invalidFields.contains("email")) {
+            return ValidationUtils.INVALID_EMAIL.formatted(customer.getEmail());
+        }
+        if (invalidFields.contains("age")) {
+            return ValidationUtils.AGE_REQUIRED;
+        }
+        return null;
+    }
+
+    private static CustomerBatchItemResult duplicate(int index, String email) {
+        return new CustomerBatchItemResult(index, null, BatchItemStatus.DUPLICATE,
+                ValidationUtils.EMAIL_DUPLICATE_ERROR.formatted(email));
+    }
+}
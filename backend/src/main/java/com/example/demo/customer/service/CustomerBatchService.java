@@ -0,0 +1,51 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Registers many customers at once, validated item by item like a single registration. The chunks of the insert
+ * commit together and the created customers are published after the commit, a failing chunk leaves nothing behind.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerBatchService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final CustomerDao customerDao;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CustomerBatchService(@Qualifier("routing") CustomerDao customerDao,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher) {
+        this.customerDao = customerDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<CustomerBatchItemResult> saveCustomers(List<CustomerRegistrationRequest> customers) {
+        CustomerBatch batch = CustomerBatch.of(customers, validator);
+
+        List<Customer> savedCustomers = transactionTemplate.execute(status ->
+                customerDao.saveAll(batch.getNewCustomers()));
+        savedCustomers.forEach(customer -> eventPublisher.publishEvent(CustomerChangedEvent.created(customer)));
+        return batch.complete(savedCustomers);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerBulkRequest;
+import com.example.demo.customer.model.CustomerBulkUpdateRequest;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerFilter;
+import com.example.demo.customer.model.CustomerSearchSort;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.exception.RequestValidationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Deletes or updates many customers in one transaction with a single set-based statement and reports an outcome
+ * for every targeted id. The changes are published after the commit, like those of single customers, so the
+ * statistics, the name index and the caches follow them.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerBulkService {
+
+    public static final int MAX_BULK_SIZE = 100_000;
+
+    private final CustomerDao customerDao;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache customerCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CustomerBulkService(@Qualifier("routing") CustomerDao customerDao,
+                               PlatformTransactionManager transactionManager,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher) {
+        this.customerDao = customerDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.customerCache = cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+        this.eventPublisher = eventPublisher;
+    }
+
+    private record Outcome(List<CustomerBatchItemResult> results, List<CustomerChangedEvent> events) {
+    }
+
+    /**
+     * The requested ids in request order, null ones included, and the distinct ids the statement targets.
+     */
+    private record Targets(List<Long> requested, List<Long> ids) {
+
+        static Targets of(List<Long> requested) {
+            Set<Long> ids = new LinkedHashSet<>(requested);
+            ids.remove(null);
+            return new Targets(requested, new ArrayList<>(ids));
+        }
+
+        List<CustomerBatchItemResult> results(BiFunction<Integer, Long, CustomerBatchItemResult> result) {
+            List<CustomerBatchItemResult> results = new ArrayList<>(requested.size());
+            for (int index = 0; index < requested.size(); index++) {
+                Long id = requested.get(index);
+                results.add(id == null
+                        ? new CustomerBatchItemResult(index, null, BatchItemStatus.INVALID, ValidationUtils.ID_REQUIRED)
+                        : result.apply(index, id));
+            }
+            return results;
+        }
+    }
+
+    public List<CustomerBatchItemResult> deleteCustomers(CustomerBulkRequest request) {
+        Outcome outcome = transactionTemplate.execute(status -> {
+            Targets targets = targets(request);
+            Map<Long, Customer> deleted = new HashMap<>();
+            customerDao.deleteAllById(targets.ids()).forEach(customer -> deleted.put(customer.getId(), customer));
+
+            return new Outcome(
+                    targets.results((index, id) -> deleted.containsKey(id)
+                            ? new CustomerBatchItemResult(index, id, BatchItemStatus.DELETED, null)
+                            : notFound(index, id)),
+                    deleted.values().stream().map(CustomerChangedEvent::deleted).toList());
+        });
+
+        return publish(outcome);
+    }
+
+    public List<CustomerBatchItemResult> updateCustomers(CustomerBulkUpdateRequest request) {
+        CustomerUpdateRequest changes = request.getChanges();
+        if (changes == null || changes.getName() == null && changes.getEmail() == null && changes.getAge() == null) {
+            throw new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND);
+        }
+
+        Outcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                Targets targets = targets(request);
+                // every customer needs an email of its own, the unique constraint would reject all but one
+                if (changes.getEmail() != null && targets.ids().size() > 1) {
+                    throw new RequestValidationException(ValidationUtils.BULK_EMAIL_CHANGE);
+                }
+
+                Map<Long, CustomerChange> updated = new HashMap<>();
+                customerDao.updateAllById(targets.ids(),
+                                new Customer(null, changes.getName(), changes.getEmail(), changes.getAge()))
+                        .forEach(change -> updated.put(change.getCurrent().getId(), change));
+
+                // only the ids that were not updated pay for telling unchanged and missing customers apart
+                List<Long> notUpdated = targets.ids().stream().filter(id -> !updated.containsKey(id)).toList();
+                Set<Long> unchanged = notUpdated.isEmpty()
+                        ? Set.of()
+                        : new HashSet<>(customerDao.findExistingIds(notUpdated));
+
+                return new Outcome(
+                        targets.results((index, id) -> updated.containsKey(id)
+                                ? new CustomerBatchItemResult(index, id, BatchItemStatus.UPDATED, null)
+                                : unchanged.contains(id)
+                                ? new CustomerBatchItemResult(index, id, BatchItemStatus.UNCHANGED, null)
+                                : notFound(index, id)),
+                        updated.values().stream().map(CustomerChangedEvent::updated).toList());
+            });
+        } catch (DataIntegrityViolationException exception) {
+            throw CustomerService.toDuplicateEmailException(exception, changes.getEmail());
+        }
+
+        return publish(outcome);
+    }
+
+    // resolved inside the transaction, the filter selects the rows the statement then changes
+    private Targets targets(CustomerBulkRequest request) {
+        if (request.getIds() != null && request.getFilter() == null) {
+            if (request.getIds().isEmpty() || request.getIds().size() > MAX_BULK_SIZE) {
+                throw new RequestValidationException(ValidationUtils.INVALID_BULK_SIZE.formatted(MAX_BULK_SIZE));
+            }
+            return Targets.of(request.getIds());
+        }
+
+        if (request.getIds() == null && request.getFilter() != null && hasCriterion(request.getFilter())) {
+            // served by the search indexes, one row more than allowed tells that the filter is too broad
+            List<Long> ids = customerDao.searchCustomerIds(CustomerService.criteria(request.getFilter(),
+                    CustomerSearchSort.ID, Sort.Direction.ASC, null, MAX_BULK_SIZE + 1));
+            if (ids.size() > MAX_BULK_SIZE) {
+                throw new RequestValidationException(ValidationUtils.INVALID_BULK_SIZE.formatted(MAX_BULK_SIZE));
+            }
+            return Targets.of(ids);
+        }
+
+        // an empty filter would match every customer
+        throw new RequestValidationException(ValidationUtils.INVALID_BULK_TARGET);
+    }
+
+    private static boolean hasCriterion(CustomerFilter filter) {
+        return StringUtils.hasText(filter.getName())
+               || StringUtils.hasText(filter.getEmailDomain())
+               || filter.getMinAge() != null
+               || filter.getMaxAge() != null;
+    }
+
+    private static CustomerBatchItemResult notFound(int index, Long id) {
+        return new CustomerBatchItemResult(index, id, BatchItemStatus.NOT_FOUND,
+                ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(id));
+    }
+
+    private List<CustomerBatchItemResult> publish(Outcome outcome) {
+        outcome.events().forEach(event -> {
+            customerCache.evict(event.id());
+            eventPublisher.publishEvent(event);
+        });
+        return outcome.results();
+    }
+}
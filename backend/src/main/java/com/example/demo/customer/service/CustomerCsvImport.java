@@ -0,0 +1,247 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.exception.RequestValidationException;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Reads an uploaded customer CSV and serves the valid records as the CSV that COPY writes to the import staging
+ * table, parsing only as far as COPY has read. The upload starts with a header naming the name, email and age
+ * columns in any order, other columns are ignored. Invalid records are counted, the first of them are kept.
+ */
+class CustomerCsvImport extends Reader {
+
+    static final String NAME = "name";
+    static final String EMAIL = "email";
+    static final String AGE = "age";
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader source;
+    private final String importId;
+    private final int maxRejected;
+    private final Validator validator;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final int nameColumn;
+    private final int emailColumn;
+    private final int ageColumn;
+
+    private final StringBuilder field = new StringBuilder();
+    private final StringBuilder rows = new StringBuilder();
+    private int rowsPosition;
+
+    // the physical line the parser is on, a quoted field may span several
+    private long line = 1;
+    private long recordLine;
+    private boolean malformed;
+    private boolean exhausted;
+
+    private long records;
+    private long invalid;
+    private final List<CustomerBatchItemResult> rejected = new ArrayList<>();
+
+    CustomerCsvImport(Reader source, UUID importId, int maxRejected, Validator validator) throws IOException {
+        this.source = source;
+        this.importId = importId.toString();
+        this.maxRejected = maxRejected;
+        this.validator = validator;
+
+        List<String> header = nextRecord();
+        List<String> columns = new ArrayList<>();
+        if (header != null && !malformed) {
+            if (!header.isEmpty() && !header.get(0).isEmpty() && header.get(0).charAt(0) == BYTE_ORDER_MARK) {
+                header.set(0, header.get(0).substring(1));
+            }
+            header.forEach(column -> columns.add(column.trim().toLowerCase(Locale.ROOT)));
+        }
+        this.nameColumn = columns.indexOf(NAME);
+        this.emailColumn = columns.indexOf(EMAIL);
+        this.ageColumn = columns.indexOf(AGE);
+        if (nameColumn < 0 || emailColumn < 0 || ageColumn < 0) {
+            throw new RequestValidationException(ValidationUtils.INVALID_CSV_HEADER
+                    .formatted(String.join(", ", NAME, EMAIL, AGE)));
+        }
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * The first invalid records, by line.
+     */
+    List<CustomerBatchItemResult> getRejected() {
+        return Collections.unmodifiableList(rejected);
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (rowsPosition == rows.length()) {
+            rows.setLength(0);
+            rowsPosition = 0;
+            // filled up to what COPY asked for, so the rows go to the driver in chunks and not one by one
+            while (rows.length() < length && !exhausted) {
+                List<String> record = nextRecord();
+                if (record == null) {
+                    exhausted = true;
+                } else if (record.size() > 1 || !record.get(0).isBlank()) {
+                    append(record);
+                }
+            }
+            if (rows.isEmpty()) {
+                return -1;
+            }
+        }
+
+        int read = Math.min(length, rows.length() - rowsPosition);
+        rows.getChars(rowsPosition, rowsPosition + read, chars, offset);
+        rowsPosition += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private void append(List<String> record) {
+        records++;
+        CustomerRegistrationRequest customer = new CustomerRegistrationRequest();
+        customer.setName(column(record, nameColumn));
+        customer.setEmail(column(record, emailColumn));
+        String error = malformed ? ValidationUtils.INVALID_CSV_LINE : parseAge(customer, column(record, ageColumn));
+        if (error == null) {
+            error = CustomerBatch.validate(customer, validator);
+        }
+
+        if (error != null) {
+            invalid++;
+            if (rejected.size() < maxRejected) {
+                rejected.add(new CustomerBatchItemResult(Math.toIntExact(recordLine), null,
+                        BatchItemStatus.INVALID, error));
+            }
+            return;
+        }
+
+        rows.append(importId).append(',').append(recordLine).append(',');
+        appendQuoted(customer.getName());
+        rows.append(',');
+        appendQuoted(customer.getEmail());
+        rows.append(',').append(customer.getAge().intValue()).append('\n');
+    }
+
+    // a blank age is left to the validation, which reports it as missing
+    private static String parseAge(CustomerRegistrationRequest customer, String age) {
+        if (age == null || age.isBlank()) {
+            return null;
+        }
+        try {
+            customer.setAge(Integer.parseInt(age.trim()));
+            return null;
+        } catch (NumberFormatException exception) {
+            return ValidationUtils.INVALID_AGE.formatted(age);
+        }
+    }
+
+    private void appendQuoted(String value) {
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        rows.append('"');
+    }
+
+    private static String column(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : null;
+    }
+
+    /**
+     * Parses the next RFC 4180 record, or returns null at the end of the upload. A record with an unterminated
+     * quote or a NUL character, which PostgreSQL does not store in text, is marked as malformed.
+     */
+    private List<String> nextRecord() throws IOException {
+        int c = next();
+        if (c == -1) {
+            return null;
+        }
+
+        recordLine = line;
+        malformed = false;
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    malformed = true;
+                    record.add(field.toString());
+                    return record;
+                }
+                if (c == '"') {
+                    c = next();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                appendToField(c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') {
+                    line++;
+                }
+                record.add(field.toString());
+                return record;
+            } else if (c != '\r') {
+                appendToField(c);
+            }
+            c = next();
+        }
+    }
+
+    private void appendToField(int c) {
+        if (c == 0) {
+            malformed = true;
+        }
+        field.append((char) c);
+    }
+
+    private int next() throws IOException {
+        while (position == limit) {
+            limit = source.read(buffer);
+            position = 0;
+            if (limit < 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerImportResult;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports customers from UTF-8 CSV uploads of any size. The upload is validated while COPY streams it into the
+ * import staging table, then a single statement merges it into customer, skipping emails that are already taken.
+ * Memory use does not grow with the upload, only the first {@link #MAX_REJECTED_LINES} rejected lines are kept.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerImportService {
+
+    public static final int MAX_REJECTED_LINES = 100;
+
+    private final CustomerJdbcDataAccessService customerJdbcDataAccessService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CustomerImportService(CustomerJdbcDataAccessService customerJdbcDataAccessService,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.customerJdbcDataAccessService = customerJdbcDataAccessService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CustomerImportResult importCustomers(InputStream csv) {
+        UUID importId = UUID.randomUUID();
+        CustomerCsvImport rows;
+        try {
+            rows = new CustomerCsvImport(new InputStreamReader(csv, StandardCharsets.UTF_8), importId,
+                    MAX_REJECTED_LINES, validator);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        try {
+            // an upload that breaks off leaves nothing behind, the copy and the merge commit together
+            int created = transactionTemplate.execute(status -> {
+                customerJdbcDataAccessService.copyIntoImportStaging(rows);
+                return customerJdbcDataAccessService.mergeImport(importId);
+            });
+
+            // published after the commit through a cursor, not read-only as the staging table is on the primary only
+            Map<Long, String> duplicates = transactionTemplate.execute(status -> {
+                customerJdbcDataAccessService.streamImportedCustomers(importId,
+                        customer -> eventPublisher.publishEvent(CustomerChangedEvent.created(customer)));
+                return customerJdbcDataAccessService.findImportDuplicates(importId, MAX_REJECTED_LINES);
+            });
+
+            List<CustomerBatchItemResult> rejected = new ArrayList<>(rows.getRejected());
+            duplicates.forEach((line, email) -> rejected.add(new CustomerBatchItemResult(Math.toIntExact(line),
+                    null, BatchItemStatus.DUPLICATE, ValidationUtils.EMAIL_DUPLICATE_ERROR.formatted(email))));
+            rejected.sort(Comparator.comparingInt(CustomerBatchItemResult::getIndex));
+
+            long valid = rows.getRecords() - rows.getInvalid();
+            return new CustomerImportResult(created, valid - created, rows.getInvalid(),
+                    rejected.subList(0, Math.min(rejected.size(), MAX_REJECTED_LINES)));
+        } finally {
+            customerJdbcDataAccessService.deleteImport(importId);
+        }
+    }
+}
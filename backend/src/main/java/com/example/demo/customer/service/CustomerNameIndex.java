@@ -0,0 +1,141 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.config.ReadYourWritesContext;
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerSuggestion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Answers name prefix queries from memory, every word of a name is a key. Kept current through the
+ * {@link CustomerChangedEvent}s of this instance.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class CustomerNameIndex implements SmartInitializingSingleton {
+
+    private record Key(String prefix, Long id) {
+    }
+
+    private record IndexedCustomer(CustomerSuggestion suggestion, Long version, List<Key> keys) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::prefix).thenComparing(Key::id);
+
+    private final NavigableMap<Key, CustomerSuggestion> suggestions = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<Long, IndexedCustomer> customers = new ConcurrentHashMap<>();
+
+    private final CustomerJdbcDataAccessService customerJdbcDataAccessService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerNameIndex(CustomerJdbcDataAccessService customerJdbcDataAccessService,
+                             PlatformTransactionManager transactionManager) {
+        this.customerJdbcDataAccessService = customerJdbcDataAccessService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // runs before the web server starts, the first request already sees every customer
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        // in a transaction for the cursor, on the primary so a lagging replica leaves no customer out
+        ReadYourWritesContext.runOnPrimary(() -> transactionTemplate.executeWithoutResult(status ->
+                customerJdbcDataAccessService.streamAllCustomers(this::put)));
+        log.info("Indexed {} customer names in {} ms", customers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns up to {@code limit} customers with a word of their name starting with the prefix, ignoring case,
+     * in the order of the matching words.
+     */
+    public List<CustomerSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+
+        // a customer is found once, even when several words of its name match
+        Map<Long, CustomerSuggestion> found = new LinkedHashMap<>();
+        for (Map.Entry<Key, CustomerSuggestion> entry
+                : suggestions.tailMap(new Key(normalizedPrefix, Long.MIN_VALUE)).entrySet()) {
+            if (found.size() == limit || !entry.getKey().prefix().startsWith(normalizedPrefix)) {
+                break;
+            }
+            found.putIfAbsent(entry.getKey().id(), entry.getValue());
+        }
+        return List.copyOf(found.values());
+    }
+
+    public int size() {
+        return customers.size();
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> put(event.customer());
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    synchronized void put(Customer customer) {
+        IndexedCustomer previous = customers.get(customer.getId());
+        if (previous != null && previous.version() > customer.getVersion()) {
+            return;
+        }
+
+        CustomerSuggestion suggestion = new CustomerSuggestion(customer.getId(), customer.getName());
+        List<Key> keys = keys(customer.getId(), customer.getName());
+        // the new keys go in first, a renamed customer never disappears from the results in between
+        keys.forEach(key -> suggestions.put(key, suggestion));
+        customers.put(customer.getId(), new IndexedCustomer(suggestion, customer.getVersion(), keys));
+        if (previous != null) {
+            previous.keys().stream()
+                    .filter(key -> !keys.contains(key))
+                    .forEach(suggestions::remove);
+        }
+    }
+
+    synchronized void remove(Long id) {
+        IndexedCustomer previous = customers.remove(id);
+        if (previous != null) {
+            previous.keys().forEach(suggestions::remove);
+        }
+    }
+
+    // one key per word, running to the end of the name so longer prefixes across words still match
+    private static List<Key> keys(Long id, String name) {
+        String normalizedName = normalize(name);
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < normalizedName.length(); i++) {
+            if (!Character.isWhitespace(normalizedName.charAt(i))
+                && (i == 0 || Character.isWhitespace(normalizedName.charAt(i - 1)))) {
+                keys.add(new Key(normalizedName.substring(i), id));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
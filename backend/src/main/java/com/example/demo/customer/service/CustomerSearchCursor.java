@@ -0,0 +1,58 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerSearchSort;
+import com.example.demo.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position after the last customer of a search page, its id and the value of the sorted column,
+ * so the next page continues from an index seek instead of an offset. The sort is part of the cursor, a cursor
+ * cannot be used with another sort.
+ */
+final class CustomerSearchCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private CustomerSearchCursor() {
+    }
+
+    static String encode(CustomerSearchSort sort, Customer last) {
+        String value = switch (sort) {
+            case ID -> "";
+            case NAME -> last.getName();
+            case AGE -> last.getAge().toString();
+        };
+        String cursor = sort + SEPARATOR + last.getId() + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Customer decode(CustomerSearchSort sort, String cursor) {
+        try {
+            // the name is last and may contain the separator itself
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 3);
+            if (parts.length != 3 || !sort.name().equals(parts[0])) {
+                throw invalid(cursor);
+            }
+
+            Customer after = new Customer();
+            after.setId(Long.valueOf(parts[1]));
+            switch (sort) {
+                case ID -> {
+                }
+                case NAME -> after.setName(parts[2]);
+                case AGE -> after.setAge(Integer.valueOf(parts[2]));
+            }
+            return after;
+        } catch (IllegalArgumentException exception) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static RequestValidationException invalid(String cursor) {
+        return new RequestValidationException(ValidationUtils.INVALID_SEARCH_CURSOR.formatted(cursor));
+    }
+}
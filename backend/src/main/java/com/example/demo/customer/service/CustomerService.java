@@ -1,42 +1,165 @@
 package com.example.demo.customer.service;
 
+import com.example.demo.config.ReadYourWritesContext;
 import com.example.demo.customer.dao.CustomerDao;
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerFilter;
+import com.example.demo.customer.model.CustomerNameMatch;
+import com.example.demo.customer.model.CustomerPage;
 import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerSearchPage;
+import com.example.demo.customer.model.CustomerSearchRequest;
+import com.example.demo.customer.model.CustomerSearchSort;
+import com.example.demo.customer.model.CustomerSuggestion;
 import com.example.demo.customer.model.CustomerUpdateRequest;
 import com.example.demo.exception.DuplicateResourceException;
 import com.example.demo.exception.NotFoundException;
 import com.example.demo.exception.RequestValidationException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
+@Profile("!reactive")
+@CacheConfig(cacheNames = CustomerService.CUSTOMER_CACHE)
 public class CustomerService {
 
+    public static final String CUSTOMER_CACHE = "customers";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "customer_email_unique";
+
     private final CustomerDao customerDao;
+    private final CustomerNameIndex customerNameIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CustomerService(@Qualifier("jpa") CustomerDao customerDao) {
+    public CustomerService(@Qualifier("routing") CustomerDao customerDao,
+                           CustomerNameIndex customerNameIndex,
+                           ApplicationEventPublisher eventPublisher) {
         this.customerDao = customerDao;
+        this.customerNameIndex = customerNameIndex;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Customer> findAllCustomers() {
         return customerDao.findAllCustomers();
     }
 
+    @Transactional(readOnly = true)
+    public CustomerPage findCustomersPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(ValidationUtils.INVALID_PAGE_LIMIT.formatted(MAX_PAGE_SIZE));
+        }
+
+        // fetch one extra row to know whether another page exists without a count query
+        List<Customer> customers = customerDao.findCustomersAfter(after == null ? 0L : after, pageSize + 1);
+        if (customers.size() <= pageSize) {
+            return new CustomerPage(customers, null);
+        }
+
+        List<Customer> page = customers.subList(0, pageSize);
+        return new CustomerPage(page, page.get(pageSize - 1).getId());
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerSearchPage searchCustomers(CustomerSearchRequest search) {
+        int pageSize = search.getLimit() == null ? DEFAULT_PAGE_SIZE : search.getLimit();
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(ValidationUtils.INVALID_PAGE_LIMIT.formatted(MAX_PAGE_SIZE));
+        }
+
+        CustomerSearchSort sort = search.getSort() == null ? CustomerSearchSort.ID : search.getSort();
+        CustomerSearchCriteria criteria = criteria(search,
+                sort,
+                search.getDirection() == null ? Sort.Direction.ASC : search.getDirection(),
+                search.getAfter() == null ? null : CustomerSearchCursor.decode(sort, search.getAfter()),
+                // one extra row tells whether another page exists, as for the plain listing
+                pageSize + 1);
+
+        List<Customer> customers = customerDao.searchCustomers(criteria);
+        if (customers.size() <= pageSize) {
+            return new CustomerSearchPage(customers, null);
+        }
+
+        List<Customer> page = customers.subList(0, pageSize);
+        return new CustomerSearchPage(page, CustomerSearchCursor.encode(sort, page.get(pageSize - 1)));
+    }
+
+    static CustomerSearchCriteria criteria(CustomerFilter filter, CustomerSearchSort sort, Sort.Direction direction,
+                                           Customer after, int limit) {
+        if (filter.getMinAge() != null && filter.getMaxAge() != null && filter.getMinAge() > filter.getMaxAge()) {
+            throw new RequestValidationException(ValidationUtils.INVALID_AGE_RANGE);
+        }
+
+        return new CustomerSearchCriteria(
+                lowerCaseOrNull(filter.getName()),
+                filter.getNameMatch() == null ? CustomerNameMatch.PREFIX : filter.getNameMatch(),
+                lowerCaseOrNull(StringUtils.trimLeadingCharacter(filter.getEmailDomain(), '@')),
+                filter.getMinAge(),
+                filter.getMaxAge(),
+                sort,
+                direction,
+                after,
+                limit);
+    }
+
+    /**
+     * Type-ahead for customer names, answered from {@link CustomerNameIndex} without a database round trip.
+     */
+    public List<CustomerSuggestion> suggestCustomers(String query, Integer limit) {
+        int suggestions = limit == null ? DEFAULT_SUGGESTIONS : limit;
+        if (suggestions < 1 || suggestions > MAX_SUGGESTIONS) {
+            throw new RequestValidationException(ValidationUtils.INVALID_PAGE_LIMIT.formatted(MAX_SUGGESTIONS));
+        }
+        return customerNameIndex.suggest(query, suggestions);
+    }
+
+    private static String lowerCaseOrNull(String value) {
+        return StringUtils.hasText(value) ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    // a miss fills the cache, a lagging replica would put back a stale customer until the entry expires
+    @Cacheable(key = "#id")
+    @Transactional(readOnly = true)
     public Customer findCustomerById(Long id) {
-        return customerDao.findCustomerById(id)
+        return ReadYourWritesContext.supplyOnPrimary(() -> customerDao.findCustomerById(id))
                 .orElseThrow(() -> new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE
                         .formatted(id)));
     }
 
-    public Customer saveCustomer(CustomerRegistrationRequest customer) {
-        if (customerDao.existsByEmail(customer.getEmail())) {
-            throw new DuplicateResourceException(ValidationUtils.EMAIL_DUPLICATE_ERROR
-                    .formatted(customer.getEmail()));
-        }
+    /**
+     * Looks up only the current version of the customer, so a client's cached copy can be validated without
+     * loading and serializing the customer.
+     */
+    // a lagging replica would still match the version before an update and answer 304
+    @Transactional(readOnly = true)
+    public Optional<Long> findCustomerVersion(Long id) {
+        return ReadYourWritesContext.supplyOnPrimary(() -> customerDao.findVersionById(id));
+    }
 
+    @CachePut(key = "#result.id")
+    public Customer saveCustomer(CustomerRegistrationRequest customer) {
         Customer newCustomer = new Customer();
         newCustomer.setName(customer.getName());
         newCustomer.setEmail(customer.getEmail());
@@ -45,44 +168,49 @@ public class CustomerService {
             newCustomer.setAge(customer.getAge());
         }
 
-        return customerDao.save(newCustomer);
+        // customer_email_unique decides, there is no window between a check and the insert
+        Customer savedCustomer = customerDao.saveIfEmailAbsent(newCustomer)
+                .orElseThrow(() -> new DuplicateResourceException(ValidationUtils.EMAIL_DUPLICATE_ERROR
+                        .formatted(customer.getEmail())));
+        eventPublisher.publishEvent(CustomerChangedEvent.created(savedCustomer));
+        return savedCustomer;
     }
 
+    @CacheEvict(key = "#id")
     public void deleteCustomer(Long id) {
-        if (!customerDao.existsById(id)) {
-            throw new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE
-                    .formatted(id));
-        }
-
-        customerDao.deleteById(id);
+        Customer deletedCustomer = customerDao.deleteById(id)
+                .orElseThrow(() -> new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE
+                        .formatted(id)));
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(deletedCustomer));
     }
 
+    @CachePut(key = "#id")
     public Customer updateCustomer(Long id, CustomerUpdateRequest customer) {
-        boolean changes = false;
-        Customer customerToUpdate = findCustomerById(id);
-
-        if (customer.getName() != null && !customerToUpdate.getName().equals(customer.getName())) {
-            customerToUpdate.setName(customer.getName());
-            changes = true;
+        if (customer.getName() == null && customer.getEmail() == null && customer.getAge() == null) {
+            throw new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND);
         }
 
-        if (customer.getAge() != null && !customerToUpdate.getAge().equals(customer.getAge())) {
-            customerToUpdate.setAge(customer.getAge());
-            changes = true;
+        Optional<CustomerChange> change;
+        try {
+            change = customerDao.updateCustomer(
+                    new Customer(id, customer.getName(), customer.getEmail(), customer.getAge()));
+        } catch (DataIntegrityViolationException exception) {
+            throw toDuplicateEmailException(exception, customer.getEmail());
         }
 
-        if (customer.getEmail() != null && !customerToUpdate.getEmail().equals(customer.getEmail())) {
-            if (customerDao.existsByEmail(customer.getEmail())) {
-                throw new DuplicateResourceException(ValidationUtils.EMAIL_DUPLICATE_ERROR
-                        .formatted(customer.getEmail()));
-            }
-            customerToUpdate.setEmail(customer.getEmail());
-            changes = true;
-        }
+        // no row was updated, only this failure path pays for a second query to tell the two cases apart
+        CustomerChange savedChange = change.orElseThrow(() -> customerDao.existsById(id)
+                ? new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND)
+                : new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(id)));
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(savedChange));
+        return savedChange.getCurrent();
+    }
 
-        if (!changes) {
-            throw new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND);
+    static RuntimeException toDuplicateEmailException(DataIntegrityViolationException exception, String email) {
+        String message = exception.getMostSpecificCause().getMessage();
+        if (message == null || !message.contains(EMAIL_UNIQUE_CONSTRAINT)) {
+            return exception;
         }
-        return customerDao.updateCustomer(customerToUpdate);
+        return new DuplicateResourceException(ValidationUtils.EMAIL_DUPLICATE_ERROR.formatted(email));
     }
 }
@@ -0,0 +1,129 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.config.ReadYourWritesContext;
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerAgeBucket;
+import com.example.demo.customer.model.CustomerEmailDomainCount;
+import com.example.demo.customer.model.CustomerStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Customer count, age histogram and email domain counts, aggregated once by the database and then adjusted by
+ * the {@link CustomerChangedEvent}s of this instance. Writers only touch lock-free counters and a snapshot
+ * never scans the table, the counters are read one by one, so a snapshot taken during a write may be off by it.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class CustomerStatistics implements SmartInitializingSingleton {
+
+    public static final int AGE_BUCKET_WIDTH = 10;
+    public static final int AGE_BUCKETS = 10;
+    public static final int TOP_EMAIL_DOMAINS = 10;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder[] ageBuckets = new LongAdder[AGE_BUCKETS];
+    private final Map<String, LongAdder> emailDomains = new ConcurrentHashMap<>();
+
+    private final CustomerJdbcDataAccessService customerJdbcDataAccessService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerStatistics(CustomerJdbcDataAccessService customerJdbcDataAccessService,
+                              PlatformTransactionManager transactionManager) {
+        this.customerJdbcDataAccessService = customerJdbcDataAccessService;
+        // one snapshot for both aggregates, a customer written between them would leave them apart for good
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+        for (int i = 0; i < AGE_BUCKETS; i++) {
+            ageBuckets[i] = new LongAdder();
+        }
+    }
+
+    // runs before the web server starts, so no change can be missed or counted twice
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        // from the primary like the name index, a replica that is behind would leave the counters off for good
+        ReadYourWritesContext.runOnPrimary(() -> transactionTemplate.executeWithoutResult(status -> {
+            customerJdbcDataAccessService.countCustomersByAge().forEach((age, customers) -> {
+                count.add(customers);
+                ageBuckets[ageBucket(age)].add(customers);
+            });
+            customerJdbcDataAccessService.countCustomersByEmailDomain().forEach((domain, customers) ->
+                    emailDomains.computeIfAbsent(domain, key -> new LongAdder()).add(customers));
+        }));
+        log.info("Seeded statistics of {} customers in {} ms", count.sum(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads the counters, its cost grows with the number of distinct email domains but not with the customers.
+     */
+    public CustomerStats snapshot() {
+        List<CustomerAgeBucket> ageHistogram = new ArrayList<>(AGE_BUCKETS);
+        for (int i = 0; i < AGE_BUCKETS; i++) {
+            ageHistogram.add(new CustomerAgeBucket(i * AGE_BUCKET_WIDTH,
+                    i == AGE_BUCKETS - 1 ? null : (i + 1) * AGE_BUCKET_WIDTH - 1,
+                    ageBuckets[i].sum()));
+        }
+
+        List<CustomerEmailDomainCount> topEmailDomains = emailDomains.entrySet().stream()
+                .map(entry -> new CustomerEmailDomainCount(entry.getKey(), entry.getValue().sum()))
+                .filter(domain -> domain.getCount() > 0)
+                .sorted(Comparator.comparingLong(CustomerEmailDomainCount::getCount).reversed()
+                        .thenComparing(CustomerEmailDomainCount::getDomain))
+                .limit(TOP_EMAIL_DOMAINS)
+                .toList();
+
+        return new CustomerStats(count.sum(), ageHistogram, topEmailDomains);
+    }
+
+    @EventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> {
+                count.increment();
+                add(event.customer(), 1);
+            }
+            case UPDATED -> {
+                add(event.customer(), 1);
+                add(event.previous(), -1);
+            }
+            case DELETED -> {
+                count.decrement();
+                add(event.previous(), -1);
+            }
+        }
+    }
+
+    private void add(Customer customer, int customers) {
+        ageBuckets[ageBucket(customer.getAge())].add(customers);
+        emailDomains.computeIfAbsent(emailDomain(customer.getEmail()), key -> new LongAdder()).add(customers);
+    }
+
+    private static int ageBucket(int age) {
+        return Math.clamp(age / AGE_BUCKET_WIDTH, 0, AGE_BUCKETS - 1);
+    }
+
+    // the same as the database's lower(substring(email from '[^@]*$'))
+    static String emailDomain(String email) {
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.ReactiveCustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerPage;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.exception.DuplicateResourceException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.exception.RequestValidationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link CustomerService} and {@link CustomerBatchService} for the reactive profile.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDao reactiveCustomerDao;
+    private final Validator validator;
+
+    public Flux<Customer> findAllCustomers() {
+        return reactiveCustomerDao.findAllCustomers();
+    }
+
+    public Mono<CustomerPage> findCustomersPage(Long after, Integer limit) {
+        int pageSize = limit == null ? CustomerService.DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > CustomerService.MAX_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(ValidationUtils.INVALID_PAGE_LIMIT
+                    .formatted(CustomerService.MAX_PAGE_SIZE)));
+        }
+
+        // fetch one extra row to know whether another page exists without a count query
+        return reactiveCustomerDao.findCustomersAfter(after == null ? 0L : after, pageSize + 1)
+                .collectList()
+                .map(customers -> {
+                    if (customers.size() <= pageSize) {
+                        return new CustomerPage(customers, null);
+                    }
+
+                    List<Customer> page = customers.subList(0, pageSize);
+                    return new CustomerPage(page, page.get(pageSize - 1).getId());
+                });
+    }
+
+    public Mono<Customer> findCustomerById(Long id) {
+        return reactiveCustomerDao.findCustomerById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException(
+                        ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(id))));
+    }
+
+    public Mono<Customer> saveCustomer(CustomerRegistrationRequest customer) {
+        return reactiveCustomerDao.saveIfEmailAbsent(
+                        new Customer(null, customer.getName(), customer.getEmail(), customer.getAge()))
+                .switchIfEmpty(Mono.error(() -> new DuplicateResourceException(ValidationUtils.EMAIL_DUPLICATE_ERROR
+                        .formatted(customer.getEmail()))));
+    }
+
+    public Mono<List<CustomerBatchItemResult>> saveCustomers(List<CustomerRegistrationRequest> customers) {
+        return Mono.fromCallable(() -> CustomerBatch.of(customers, validator))
+                .flatMap(batch -> reactiveCustomerDao.saveAll(batch.getNewCustomers())
+                        .collectList()
+                        .map(batch::complete));
+    }
+
+    public Mono<Void> deleteCustomer(Long id) {
+        return reactiveCustomerDao.deleteById(id)
+                .flatMap(deleted -> deleted
+                        ? Mono.empty()
+                        : Mono.error(new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE
+                                .formatted(id))));
+    }
+
+    public Mono<Customer> updateCustomer(Long id, CustomerUpdateRequest customer) {
+        if (customer.getName() == null && customer.getEmail() == null && customer.getAge() == null) {
+            return Mono.error(new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND));
+        }
+
+        // no row was updated, only this failure path pays for a second query to tell the two cases apart
+        return reactiveCustomerDao.updateCustomer(
+                        new Customer(id, customer.getName(), customer.getEmail(), customer.getAge()))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        exception -> CustomerService.toDuplicateEmailException(exception, customer.getEmail()))
+                .switchIfEmpty(Mono.defer(() -> reactiveCustomerDao.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new RequestValidationException(ValidationUtils.NO_CHANGES_FOUND)
+                                : new NotFoundException(ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE
+                                        .formatted(id))))));
+    }
+}
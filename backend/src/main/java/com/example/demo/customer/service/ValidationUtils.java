@@ -4,4 +4,18 @@ public interface ValidationUtils {
     String CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE = "Customer with id = [%s] not found";
     String EMAIL_DUPLICATE_ERROR = "Customer with email = [%s] already exists";
     String NO_CHANGES_FOUND = "No changes found";
+    String INVALID_PAGE_LIMIT = "Limit must be between 1 and %s";
+    String INVALID_AGE_RANGE = "Minimum age must not be greater than maximum age";
+    String INVALID_SEARCH_CURSOR = "Cursor = [%s] is invalid";
+    String INVALID_BATCH_SIZE = "Batch must contain between 1 and %s customers";
+    String NAME_REQUIRED = "Name is required";
+    String INVALID_EMAIL = "Email = [%s] is invalid";
+    String AGE_REQUIRED = "Age is required";
+    String INVALID_BULK_TARGET = "Either ids or a filter with at least one criterion is required";
+    String INVALID_BULK_SIZE = "Bulk operation must target between 1 and %s customers";
+    String ID_REQUIRED = "Id is required";
+    String BULK_EMAIL_CHANGE = "Email can only be changed for a single customer";
+    String INVALID_CSV_HEADER = "CSV header must name the columns %s";
+    String INVALID_CSV_LINE = "Line is not valid CSV";
+    String INVALID_AGE = "Age = [%s] is invalid";
 }
@@ -0,0 +1,14 @@
+-- bumped on every update, whichever statement does it, so the version can serve as the row's ETag
+ALTER TABLE customer
+ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION customer_increment_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_increment_version
+BEFORE UPDATE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_increment_version();
@@ -0,0 +1,9 @@
+-- trigram indexes serve the case-insensitive prefix and substring matches of the customer search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX customer_name_trgm_idx ON customer USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX customer_email_trgm_idx ON customer USING gin (lower(email) gin_trgm_ops);
+
+-- the age range and the keyset order of every sort, the id breaks ties so pages never overlap
+CREATE INDEX customer_age_id_idx ON customer (age, id);
+CREATE INDEX customer_name_id_idx ON customer (name, id);
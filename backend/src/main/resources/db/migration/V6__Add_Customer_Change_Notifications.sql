@@ -0,0 +1,23 @@
+-- every committed change is announced on the customer_changes channel, whichever statement or instance made it,
+-- see CustomerChangeListener. Rolled back changes are never delivered.
+CREATE FUNCTION customer_notify_change() RETURNS trigger AS $$
+DECLARE
+    changed customer;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+
+    PERFORM pg_notify('customer_changes', json_build_object(
+            'type', CASE TG_OP WHEN 'INSERT' THEN 'CREATED' WHEN 'UPDATE' THEN 'UPDATED' ELSE 'DELETED' END,
+            'id', changed.id,
+            'version', changed.version)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_notify_change
+AFTER INSERT OR UPDATE OR DELETE ON customer
+FOR EACH ROW EXECUTE FUNCTION customer_notify_change();
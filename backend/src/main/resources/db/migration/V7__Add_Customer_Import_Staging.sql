@@ -0,0 +1,12 @@
+-- CSV imports are copied here before they are merged into customer, one import_id per upload. Unlogged, since a
+-- staged import that is lost in a crash is simply uploaded again
+CREATE UNLOGGED TABLE customer_import(
+    import_id UUID NOT NULL,
+    line BIGINT NOT NULL,
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    age INT NOT NULL,
+    -- set by the merge for the lines that were inserted
+    customer_id BIGINT,
+    PRIMARY KEY (import_id, line)
+);
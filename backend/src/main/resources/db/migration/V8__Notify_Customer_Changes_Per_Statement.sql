@@ -0,0 +1,46 @@
+-- the changes are announced once per statement instead of from a row trigger. A statement that changes up to 100
+-- customers still sends one notification per customer, a larger one, an import or a bulk write, sends a single
+-- notification with the number of customers instead of their ids. Subscribers re-sync on it as they do after a
+-- reconnect, in return such a statement pays for one notification instead of a trigger call and a notification per
+-- row, and does not overflow the buffer of every subscriber of the change stream.
+DROP TRIGGER customer_notify_change ON customer;
+DROP FUNCTION customer_notify_change();
+
+CREATE FUNCTION customer_notify_changes() RETURNS trigger AS $$
+DECLARE
+    change_type TEXT := CASE TG_OP WHEN 'INSERT' THEN 'CREATED' WHEN 'UPDATE' THEN 'UPDATED' ELSE 'DELETED' END;
+    changes BIGINT;
+BEGIN
+    SELECT count(*) INTO changes FROM changed;
+
+    IF changes > 100 THEN
+        PERFORM pg_notify('customer_changes', json_build_object(
+                'type', change_type,
+                'count', changes)::text);
+    ELSE
+        PERFORM pg_notify('customer_changes', json_build_object(
+                'type', change_type,
+                'id', id,
+                'version', version)::text)
+        FROM changed
+        ORDER BY id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- a trigger with transition tables can only have one event
+CREATE TRIGGER customer_notify_inserts
+AFTER INSERT ON customer
+REFERENCING NEW TABLE AS changed
+FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
+
+CREATE TRIGGER customer_notify_updates
+AFTER UPDATE ON customer
+REFERENCING NEW TABLE AS changed
+FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
+
+CREATE TRIGGER customer_notify_deletes
+AFTER DELETE ON customer
+REFERENCING OLD TABLE AS changed
+FOR EACH STATEMENT EXECUTE FUNCTION customer_notify_changes();
@@ -0,0 +1,62 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private final AtomicBoolean primaryRequired = new AtomicBoolean();
+    private final FilterChain chain = (request, response) ->
+            primaryRequired.set(ReadYourWritesContext.isPrimaryRequired());
+
+    @Test
+    void writeSetsLastWriteCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/customers/1"), response, chain);
+
+        assertThat(response.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE).getValue())
+                .isEqualTo(Long.toString(NOW.toEpochMilli()));
+    }
+
+    @Test
+    void readWithinWindowRequiresPrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE,
+                Long.toString(NOW.minusSeconds(1).toEpochMilli())));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(primaryRequired).isTrue();
+        assertThat(response.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE)).isNull();
+        assertThat(ReadYourWritesContext.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void readAfterWindowMayUseReplica() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE,
+                Long.toString(NOW.minusSeconds(5).toEpochMilli())));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(primaryRequired).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.config;
+
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest extends AbstractTestcontainersUnitTest {
+
+    // a second, independent database standing in for a streaming replica of the primary container
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("dao-unit-test-replica")
+                    .withUsername("postgres")
+                    .withPassword("12345");
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(
+                replicaContainer.getJdbcUrl(),
+                replicaContainer.getUsername(),
+                replicaContainer.getPassword()
+        ).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        useReplica(DataSourceBuilder.create()
+                .url(replicaContainer.getJdbcUrl())
+                .username(replicaContainer.getUsername())
+                .password(replicaContainer.getPassword())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ReadYourWritesContext.clear();
+        replicaRoutingDataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        assertThat(currentDatabase(readOnlyTransaction))
+                .isEqualTo(replicaContainer.getDatabaseName());
+    }
+
+    @Test
+    void readWriteTransactionGoesToPrimary() {
+        assertThat(currentDatabase(readWriteTransaction))
+                .isNotEqualTo(replicaContainer.getDatabaseName());
+    }
+
+    @Test
+    void statementOutsideTransactionGoesToPrimary() {
+        assertThat(currentDatabase()).isNotEqualTo(replicaContainer.getDatabaseName());
+    }
+
+    @Test
+    void readOnlyTransactionGoesToPrimaryAfterOwnWrite() {
+        ReadYourWritesContext.requirePrimary();
+
+        assertThat(currentDatabase(readOnlyTransaction))
+                .isNotEqualTo(replicaContainer.getDatabaseName());
+    }
+
+    @Test
+    void readOnlyTransactionRunOnPrimaryGoesToPrimary() {
+        AtomicReference<String> database = new AtomicReference<>();
+        ReadYourWritesContext.runOnPrimary(() -> database.set(currentDatabase(readOnlyTransaction)));
+
+        assertThat(database.get()).isNotEqualTo(replicaContainer.getDatabaseName());
+        assertThat(ReadYourWritesContext.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToPrimaryWhenReplicaIsDown() throws IOException {
+        replicaRoutingDataSource.close();
+        useReplica(new DriverManagerDataSource("jdbc:postgresql://localhost:1/unreachable", "postgres", "12345"));
+
+        assertThat(replicaRoutingDataSource.getHealthyReplicas()).isEmpty();
+        assertThat(currentDatabase(readOnlyTransaction))
+                .isNotEqualTo(replicaContainer.getDatabaseName());
+    }
+
+    private void useReplica(DataSource replica) {
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(getDataSource(), List.of(replica),
+                Duration.ofHours(1));
+        replicaRoutingDataSource.afterPropertiesSet();
+        replicaRoutingDataSource.checkReplicas();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+    }
+
+    private String currentDatabase(TransactionTemplate transaction) {
+        return transaction.execute(status -> currentDatabase());
+    }
+}
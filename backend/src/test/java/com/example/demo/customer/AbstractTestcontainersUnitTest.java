@@ -1,5 +1,8 @@
 package com.example.demo.customer;
 
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.BeforeAll;
 import org.springframework.boot.jdbc.DataSourceBuilder;
@@ -17,6 +20,11 @@ public abstract class AbstractTestcontainersUnitTest {
 
     @BeforeAll
     static void beforeAll() {
+        migrate();
+    }
+
+    // also used by the benchmarks, which start the container themselves outside of JUnit
+    protected static void migrate() {
         Flyway flyway = Flyway.configure().dataSource(
                 postgreSQLContainer.getJdbcUrl(),
                 postgreSQLContainer.getUsername(),
@@ -65,4 +73,16 @@ public abstract class AbstractTestcontainersUnitTest {
     protected static JdbcTemplate getJdbcTemplate() {
         return new JdbcTemplate(getDataSource());
     }
+
+    protected static ConnectionFactory getConnectionFactory() {
+        String url = postgreSQLContainer.getJdbcUrl()
+                .replaceFirst("^jdbc:", "r2dbc:")
+                .replaceFirst("\\?.*$", "");
+
+        return ConnectionFactories.get(ConnectionFactoryOptions.parse(url)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, postgreSQLContainer.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, postgreSQLContainer.getPassword())
+                .build());
+    }
 }
@@ -0,0 +1,157 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.event.CustomerChangedEvent.ChangeType;
+import com.example.demo.customer.model.CustomerChangeNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerChangeStream customerChangeStream =
+            new CustomerChangeStream(new ObjectMapper(), meterRegistry, 4, Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        customerChangeStream.destroy();
+    }
+
+    @Test
+    void subscribeSendsAHeartbeatFirst() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        customerChangeStream.subscribe(emitter);
+
+        assertThat(emitter.awaitSent(":heartbeat\n\n")).startsWith(":heartbeat\n\n");
+        assertThat(customerChangeStream.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onCustomerChangeSendsTheNotificationToEverySubscriber() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        customerChangeStream.subscribe(first);
+        customerChangeStream.subscribe(second);
+
+        customerChangeStream.onCustomerChange(new CustomerChangeNotification(ChangeType.UPDATED, 1L, 3L));
+
+        String expected = "event:customer\ndata:{\"type\":\"UPDATED\",\"id\":1,\"version\":3}\n\n";
+        assertThat(first.awaitSent(expected)).contains(expected);
+        assertThat(second.awaitSent(expected)).contains(expected);
+    }
+
+    @Test
+    void onCustomerChangeSendsASummaryWithTheCountOnly() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        customerChangeStream.subscribe(emitter);
+
+        customerChangeStream.onCustomerChange(new CustomerChangeNotification(ChangeType.DELETED, null, null, 500L));
+
+        String expected = "event:customer\ndata:{\"type\":\"DELETED\",\"count\":500}\n\n";
+        assertThat(emitter.awaitSent(expected)).contains(expected);
+    }
+
+    @Test
+    void aSubscriberThatFallsBehindIsDisconnectedWithoutHoldingUpTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        customerChangeStream.subscribe(slow);
+        customerChangeStream.subscribe(fast);
+
+        for (long id = 1; id <= 10; id++) {
+            customerChangeStream.onCustomerChange(new CustomerChangeNotification(ChangeType.CREATED, id, 0L));
+            fast.awaitSent("\"id\":" + id + ",");
+        }
+
+        assertThat(customerChangeStream.getSubscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("customer.change.stream.overflows").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(slow.completed.await(5, SECONDS)).isTrue();
+        assertThat(String.join("", slow.sent)).doesNotContain("\"id\":10,");
+    }
+
+    @Test
+    void destroyCompletesEverySubscriber() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        customerChangeStream.subscribe(emitter);
+
+        customerChangeStream.destroy();
+
+        assertThat(emitter.completed.await(5, SECONDS)).isTrue();
+    }
+
+    @Test
+    void destroyCompletesASubscriberWithAFullBuffer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        customerChangeStream.subscribe(slow);
+        assertThat(slow.sending.await(5, SECONDS)).isTrue();
+        for (long id = 1; id <= 4; id++) {
+            customerChangeStream.onCustomerChange(new CustomerChangeNotification(ChangeType.CREATED, id, 0L));
+        }
+
+        customerChangeStream.destroy();
+        release.countDown();
+
+        assertThat(slow.completed.await(5, SECONDS)).isTrue();
+        assertThat(slow.awaitSent("\"id\":4,")).contains("\"id\":1,");
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final StringBuilder received = new StringBuilder();
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        // everything sent so far, once it contains the expected text
+        String awaitSent(String expected) throws InterruptedException {
+            while (!received.toString().contains(expected)) {
+                String chunk = sent.poll(5, SECONDS);
+                assertThat(chunk).as("sent before %s", expected).isNotNull();
+                received.append(chunk);
+            }
+            return received.toString();
+        }
+    }
+}
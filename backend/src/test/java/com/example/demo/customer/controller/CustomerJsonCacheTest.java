@@ -0,0 +1,63 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerJsonCache customerJsonCache = new CustomerJsonCache(objectMapper, meterRegistry, 100);
+
+    private final Customer customer = getCustomer();
+
+    @BeforeEach
+    void setUp() {
+        customer.setId(1L);
+        customer.setVersion(0L);
+    }
+
+    @Test
+    void toJsonWritesWhatTheObjectMapperWrites() throws Exception {
+        assertThat(customerJsonCache.toJson(customer))
+                .isEqualTo(objectMapper.writeValueAsBytes(customer));
+    }
+
+    @Test
+    void toJsonReusesTheBytesOfTheSameVersion() {
+        byte[] json = customerJsonCache.toJson(customer);
+
+        assertThat(customerJsonCache.toJson(customer)).isSameAs(json);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "customerJson").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void toJsonSerializesAgainForANewVersion() throws Exception {
+        byte[] json = customerJsonCache.toJson(customer);
+
+        Customer updated = new Customer(customer.getId(), "Updated Name", customer.getEmail(), customer.getAge(), 1L);
+
+        assertThat(customerJsonCache.toJson(updated))
+                .isNotSameAs(json)
+                .isEqualTo(objectMapper.writeValueAsBytes(updated));
+    }
+
+    @Test
+    void onCustomerChangedEvictsTheCustomer() {
+        byte[] json = customerJsonCache.toJson(customer);
+
+        customerJsonCache.onCustomerChanged(CustomerChangedEvent.deleted(customer));
+
+        assertThat(customerJsonCache.toJson(customer))
+                .isNotSameAs(json)
+                .isEqualTo(json);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts the application in-process against the Testcontainers database and drives the customer endpoints with a
+ * weighted mix of operations from a fixed number of concurrent clients, then reports throughput and latency
+ * percentiles per operation. Arguments are {@code key=value} pairs, see {@link Settings} for the defaults:
+ * <pre>
+ * mvn -Pload-test test -Dload.args="concurrency=64 warmup=10 duration=60 mix=get:60,page:20,register:10,update:10"
+ * </pre>
+ * {@code profiles=virtual-threads} or {@code profiles=reactive} runs the same load against another stack.
+ */
+@Slf4j
+public class CustomerLoadHarness extends AbstractTestcontainersUnitTest {
+
+    private static final String URI_PATH = "/api/v1/customers";
+    private static final String EMAIL_PREFIX = "load-";
+
+    enum Operation {
+        GET(200), PAGE(200), REGISTER(201), UPDATE(200), DELETE(204);
+
+        private final int expectedStatus;
+
+        Operation(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    record Settings(int concurrency, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                    int seed, String profiles, Path report) {
+
+        static Settings parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                String[] keyValue = arg.split("=", 2);
+                if (keyValue.length != 2) {
+                    throw new IllegalArgumentException("Expected key=value but got " + arg);
+                }
+                values.put(keyValue[0], keyValue[1]);
+            }
+
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String weight : values.getOrDefault("mix", "get:60,page:20,register:10,update:10").split(",")) {
+                String[] operationWeight = weight.split(":");
+                mix.put(Operation.valueOf(operationWeight[0].trim().toUpperCase()),
+                        Integer.parseInt(operationWeight[1].trim()));
+            }
+
+            return new Settings(Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                    Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                    Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                    mix,
+                    Integer.parseInt(values.getOrDefault("seed", "1000")),
+                    values.getOrDefault("profiles", ""),
+                    Path.of(values.getOrDefault("report", "target/load-test-report.txt")));
+        }
+    }
+
+    private static final class Stats {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+        Stats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentHistogram(3));
+                errors.put(operation, new LongAdder());
+            }
+        }
+
+        void record(Operation operation, long latencyNanos, boolean success) {
+            latencies.get(operation).recordValue(latencyNanos / 1000);
+            if (!success) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<Long> registeredIds = new ConcurrentLinkedQueue<>();
+    private String baseUrl;
+    private List<Long> seededIds;
+
+    private CustomerLoadHarness(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new CustomerLoadHarness(Settings.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        postgreSQLContainer.start();
+        migrate();
+
+        try (ConfigurableApplicationContext context = startApplication()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(getDataSource());
+            jdbcTemplate.update("INSERT INTO customer(name, email, age) " +
+                                "SELECT 'Customer ' || i, ? || i || '@mail.com', 20 + i % 50 " +
+                                "FROM generate_series(1, ?) i", EMAIL_PREFIX + "seed-", settings.seed());
+            seededIds = jdbcTemplate.queryForList("SELECT id FROM customer WHERE email LIKE ?", Long.class,
+                    EMAIL_PREFIX + "%");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + URI_PATH;
+
+            runPhase(settings.warmup(), new Stats());
+            Stats stats = new Stats();
+            runPhase(settings.duration(), stats);
+
+            String report = report(stats);
+            log.info("Load test report\n{}", report);
+            Files.createDirectories(settings.report().toAbsolutePath().getParent());
+            Files.writeString(settings.report(), report);
+
+            jdbcTemplate.update("DELETE FROM customer WHERE email LIKE ?", EMAIL_PREFIX + "%");
+        } finally {
+            postgreSQLContainer.stop();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication() {
+        String r2dbcUrl = postgreSQLContainer.getJdbcUrl()
+                .replaceFirst("^jdbc:", "r2dbc:")
+                .replaceFirst("\\?.*$", "");
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        if (!settings.profiles().isBlank()) {
+            builder.profiles(settings.profiles().split(","));
+        }
+        // passed as command line arguments, default properties would lose against application.properties
+        return builder.run("--server.port=0",
+                "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                "--spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                "--spring.r2dbc.url=" + r2dbcUrl,
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=warn",
+                "--logging.level." + CustomerLoadHarness.class.getName() + "=info");
+    }
+
+    private void runPhase(Duration duration, Stats stats) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            List<Future<?>> futures = new ArrayList<>(settings.concurrency());
+            for (int i = 0; i < settings.concurrency(); i++) {
+                futures.add(clients.submit(() -> {
+                    while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                        execute(nextOperation(), stats);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Operation nextOperation() {
+        int total = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : settings.mix().entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private void execute(Operation operation, Stats stats) {
+        Long deletableId = operation == Operation.DELETE ? registeredIds.poll() : null;
+        if (operation == Operation.DELETE && deletableId == null) {
+            // nothing registered by this run yet, keep the request rate instead of idling
+            operation = Operation.REGISTER;
+        }
+
+        HttpRequest request = switch (operation) {
+            case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomSeededId())).GET().build();
+            case PAGE -> HttpRequest.newBuilder(URI.create(baseUrl + "?after=" + randomSeededId() + "&limit=20"))
+                    .GET()
+                    .build();
+            case REGISTER -> json(HttpRequest.newBuilder(URI.create(baseUrl)),
+                    "POST", "{\"name\":\"Load customer\",\"email\":\"%s%d@mail.com\",\"age\":30}"
+                            .formatted(EMAIL_PREFIX, sequence.incrementAndGet()));
+            case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomSeededId())),
+                    "PUT", "{\"name\":\"Load customer %d\"}".formatted(sequence.incrementAndGet()));
+            case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + deletableId)).DELETE().build();
+        };
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            boolean success = response.statusCode() == operation.expectedStatus;
+            stats.record(operation, latency, success);
+
+            if (operation == Operation.REGISTER && success) {
+                response.headers().firstValue("Location").ifPresent(location -> registeredIds.add(
+                        Long.valueOf(location.substring(location.lastIndexOf('/') + 1))));
+            }
+        } catch (IOException exception) {
+            stats.record(operation, System.nanoTime() - start, false);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Long randomSeededId() {
+        return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String report(Stats stats) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        StringBuilder report = new StringBuilder()
+                .append("concurrency=%d duration=%ss profiles=%s mix=%s%n".formatted(settings.concurrency(),
+                        settings.duration().toSeconds(),
+                        settings.profiles().isBlank() ? "default" : settings.profiles(),
+                        settings.mix()))
+                .append("%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n".formatted("operation", "requests", "errors",
+                        "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms"));
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram latencies = stats.latencies.get(operation);
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = stats.errors.get(operation).sum();
+            total.add(latencies);
+            totalErrors += errors;
+            report.append(line(operation.name().toLowerCase(), latencies, errors, seconds));
+        }
+        return report.append(line("total", total, totalErrors, seconds)).toString();
+    }
+
+    private static String line(String name, Histogram latencies, long errors, double seconds) {
+        return "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n".formatted(name,
+                latencies.getTotalCount(),
+                errors,
+                latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(95) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.customer.controller;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// compares request handling on the Tomcat platform-thread pool with the virtual-threads profile under
+// more concurrent clients than the pool has threads, against the Testcontainers database:
+// mvn -Pbenchmark test -Djmh.args="CustomerThreadingModeBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class CustomerThreadingModeBenchmark extends AbstractTestcontainersUnitTest {
+
+    private static final String EMAIL_PREFIX = "threading-benchmark-";
+    private static final int SEEDED_CUSTOMERS = 1000;
+
+    @Param({"platform", "virtual-threads"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgreSQLContainer.start();
+        migrate();
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        if (!"platform".equals(mode)) {
+            builder.profiles(mode);
+        }
+        // passed as command line arguments, default properties would lose against application.properties
+        context = builder.run("--server.port=0",
+                "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                "--spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                // keep the connection pool from being the only bottleneck in both modes
+                "--spring.datasource.hikari.maximum-pool-size=50",
+                "--logging.level.root=warn");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) " +
+                            "SELECT 'Customer ' || i, ? || i || '@mail.com', 20 + i % 50 " +
+                            "FROM generate_series(1, ?) i", EMAIL_PREFIX, SEEDED_CUSTOMERS);
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        pageRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customers?limit=100"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgreSQLContainer.stop();
+    }
+
+    @Benchmark
+    public int findCustomersPage() throws IOException, InterruptedException {
+        return httpClient.send(pageRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
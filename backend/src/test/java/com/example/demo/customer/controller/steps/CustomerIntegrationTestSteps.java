@@ -1,8 +1,19 @@
 package com.example.demo.customer.controller.steps;
 
+import com.example.demo.customer.controller.CustomerChangeStream;
+import com.example.demo.customer.controller.CustomerController;
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerBulkRequest;
+import com.example.demo.customer.model.CustomerChangeNotification;
+import com.example.demo.customer.model.CustomerImportResult;
 import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerStats;
+import com.example.demo.customer.model.CustomerSuggestion;
 import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.customer.service.CustomerService;
 import com.example.demo.exception.NotFoundException;
 import io.cucumber.java.After;
 import io.cucumber.java.DataTableType;
@@ -12,19 +23,37 @@ import io.cucumber.java.en.When;
 import io.cucumber.spring.CucumberContextConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import static com.example.demo.customer.utils.TestUtils.FAKER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.DEFINED_PORT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 @SpringBootTest(webEnvironment = DEFINED_PORT)
 @CucumberContextConfiguration
@@ -34,8 +63,18 @@ public class CustomerIntegrationTestSteps {
     private CustomerUpdateRequest updateRequest;
     private List<Customer> customers;
     private Customer customer;
+    private String eTag;
+    private List<CustomerSuggestion> suggestions;
+    private CustomerStats stats;
+    private List<CustomerBatchItemResult> batchResults = List.of();
+    private Flux<ServerSentEvent<CustomerChangeNotification>> changes;
+    private CustomerImportResult importResult;
+    private Customer importedCustomer;
+    private HttpResponse<byte[]> export;
 
     public static final String URI = "/api/v1/customers";
+    @LocalServerPort
+    private int port;
     @Autowired
     private WebTestClient webTestClient;
 
@@ -76,26 +115,163 @@ public class CustomerIntegrationTestSteps {
 
     @When("Getting all customers")
     public void getting_all_customers() {
-        customers = webTestClient.get()
-                .uri(URI)
-                .exchange()
-                .expectStatus().isOk()
-                .expectBodyList(new ParameterizedTypeReference<Customer>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        customers = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            EntityExchangeResult<List<Customer>> page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder.path(URI)
+                            .queryParamIfPresent("after", Optional.ofNullable(after))
+                            .build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(new ParameterizedTypeReference<Customer>() {
+                    })
+                    .returnResult();
+            customers.addAll(page.getResponseBody());
+            cursor = page.getResponseHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
     }
 
     @When("Getting the customer by customer id")
     public void getting_the_customer_by_customer_id() {
-        customer = webTestClient.get()
+        EntityExchangeResult<Customer> result = webTestClient.get()
                 .uri(URI + "/{id}", customer.getId())
                 .accept(APPLICATION_JSON)
                 .exchange()
                 .expectBody(new ParameterizedTypeReference<Customer>() {
                 })
+                .returnResult();
+        customer = result.getResponseBody();
+        eTag = result.getResponseHeaders().getETag();
+    }
+
+    @Then("Getting the customer with its ETag is not modified")
+    public void getting_the_customer_with_its_etag_is_not_modified() {
+        webTestClient.get()
+                .uri(URI + "/{id}", customer.getId())
+                .accept(APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Then("Getting the customer with its previous ETag returns the updated customer")
+    public void getting_the_customer_with_its_previous_etag_returns_the_updated_customer() {
+        Customer updated = webTestClient.get()
+                .uri(URI + "/{id}", customer.getId())
+                .accept(APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(eTag))
+                .expectBody(Customer.class)
                 .returnResult()
                 .getResponseBody();
+
+        assertThat(updated.getName()).isEqualTo(updateRequest.getName());
+    }
+
+    @When("Searching customers by the added customer's name and email domain")
+    public void searching_customers_by_the_added_customers_name_and_email_domain() {
+        customers = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            EntityExchangeResult<List<Customer>> page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder.path(URI + "/search")
+                            .queryParam("name", customer.getName().substring(0, 3))
+                            .queryParam("emailDomain", customer.getEmail().substring(customer.getEmail().indexOf('@')))
+                            .queryParam("minAge", customer.getAge())
+                            .queryParam("maxAge", customer.getAge())
+                            .queryParam("sort", "NAME")
+                            .queryParamIfPresent("after", Optional.ofNullable(after))
+                            .build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(new ParameterizedTypeReference<Customer>() {
+                    })
+                    .returnResult();
+            customers.addAll(page.getResponseBody());
+            cursor = page.getResponseHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+    }
+
+    @Then("The search results contain the added customer")
+    public void the_search_results_contain_the_added_customer() {
+        assertThat(customers).contains(customer)
+                .allSatisfy(found -> assertThat(found.getAge()).isEqualTo(customer.getAge()));
+    }
+
+    @When("Suggesting customers for the added customer's name")
+    public void suggesting_customers_for_the_added_customers_name() {
+        suggestions = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(URI + "/suggest")
+                        .queryParam("q", customer.getName())
+                        .queryParam("limit", CustomerService.MAX_SUGGESTIONS)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CustomerSuggestion.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Then("The suggestions contain the added customer")
+    public void the_suggestions_contain_the_added_customer() {
+        assertThat(suggestions).extracting(CustomerSuggestion::getId).contains(customer.getId());
+    }
+
+    @When("Getting the customer statistics")
+    public void getting_the_customer_statistics() {
+        stats = getStats();
+    }
+
+    @Then("The customer statistics count one customer less")
+    public void the_customer_statistics_count_one_customer_less() {
+        assertThat(getStats().getCount()).isEqualTo(stats.getCount() - 1);
+    }
+
+    private CustomerStats getStats() {
+        return webTestClient.get()
+                .uri(URI + "/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerStats.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @When("Watching customer changes")
+    public void watching_customer_changes() {
+        // the response headers are only sent once the subscription is registered, changes from now on are streamed
+        changes = webTestClient.get()
+                .uri(URI + "/stream")
+                .accept(TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<CustomerChangeNotification>>() {
+                })
+                .getResponseBody();
+    }
+
+    @Then("The change stream announces the deleted customer")
+    public void the_change_stream_announces_the_deleted_customer() {
+        CustomerChangeNotification notification = changes
+                .filter(event -> CustomerChangeStream.CHANGE_EVENT.equals(event.event()))
+                .map(ServerSentEvent::data)
+                .filter(change -> customer.getId().equals(change.getId()))
+                .blockFirst(Duration.ofSeconds(10));
+
+        assertThat(notification).isNotNull();
+        assertThat(notification.getType()).isEqualTo(CustomerChangedEvent.ChangeType.DELETED);
     }
 
     @When("Delete customer by id")
@@ -108,6 +284,33 @@ public class CustomerIntegrationTestSteps {
                 .isNoContent();
     }
 
+    @When("Bulk deleting the added customer by id")
+    public void bulk_deleting_the_added_customer_by_id() {
+        CustomerBulkRequest request = new CustomerBulkRequest();
+        request.setIds(List.of(customer.getId()));
+
+        batchResults = webTestClient.post()
+                .uri(URI + "/bulk-delete")
+                .accept(APPLICATION_JSON)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CustomerBatchItemResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Then("The bulk result reports the added customer deleted")
+    public void the_bulk_result_reports_the_added_customer_deleted() {
+        assertThat(batchResults).singleElement()
+                .satisfies(result -> {
+                    assertThat(result.getId()).isEqualTo(customer.getId());
+                    assertThat(result.getStatus()).isEqualTo(BatchItemStatus.DELETED);
+                });
+    }
+
     @Then("The added customer is found")
     public void the_added_customer_is_found() {
         assertAll(
@@ -133,6 +336,121 @@ public class CustomerIntegrationTestSteps {
         assertThat(customers).doesNotContain(customer);
     }
 
+    @When("Registering {int} random customers in batch")
+    public void registering_random_customers_in_batch(int count) {
+        List<CustomerRegistrationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CustomerRegistrationRequest request = new CustomerRegistrationRequest();
+            request.setName(FAKER.name().fullName());
+            request.setEmail(i + FAKER.internet().safeEmailAddress());
+            request.setAge(new Random().nextInt(16, 99));
+            requests.add(request);
+        }
+
+        batchResults = webTestClient.post()
+                .uri(URI + "/batch")
+                .accept(APPLICATION_JSON)
+                .contentType(APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CustomerBatchItemResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Then("All batch customers are created")
+    public void all_batch_customers_are_created() {
+        assertThat(batchResults).isNotEmpty()
+                .allSatisfy(result -> {
+                    assertThat(result.getStatus()).isEqualTo(BatchItemStatus.CREATED);
+                    assertThat(result.getId()).isNotNull();
+                });
+    }
+
+    @When("Importing a CSV with a new customer and the added customer's email")
+    public void importing_a_csv_with_a_new_customer_and_the_added_customers_email() {
+        importedCustomer = new Customer(null, FAKER.name().fullName(),
+                UUID.randomUUID() + "@" + UUID.randomUUID() + ".test", new Random().nextInt(16, 99));
+        String csv = "name,email,age\n" +
+                     "\"" + importedCustomer.getName() + "\"," + importedCustomer.getEmail() + "," +
+                     importedCustomer.getAge() + "\n" +
+                     "Duplicate," + customer.getEmail() + ",30\n";
+
+        importResult = webTestClient.post()
+                .uri(URI + "/import")
+                .accept(APPLICATION_JSON)
+                .contentType(MediaType.parseMediaType(CustomerController.TEXT_CSV_VALUE))
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerImportResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Then("The import creates the new customer and rejects the added customer's email")
+    public void the_import_creates_the_new_customer_and_rejects_the_added_customers_email() {
+        assertThat(importResult.getCreated()).isEqualTo(1);
+        assertThat(importResult.getDuplicates()).isEqualTo(1);
+        assertThat(importResult.getRejected()).singleElement()
+                .satisfies(result -> {
+                    assertThat(result.getIndex()).isEqualTo(3);
+                    assertThat(result.getStatus()).isEqualTo(BatchItemStatus.DUPLICATE);
+                });
+
+        List<Customer> found = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(URI + "/search")
+                        .queryParam("emailDomain", importedCustomer.getEmail().substring(
+                                importedCustomer.getEmail().indexOf('@')))
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(found).containsExactly(importedCustomer);
+        importedCustomer = found.get(0);
+    }
+
+    @When("Exporting customers as CSV accepting the encodings {string}")
+    public void exporting_customers_as_csv_accepting_the_encodings(String acceptEncoding)
+            throws IOException, InterruptedException {
+        // not through the web test client, its connector asks for gzip itself and decompresses the body
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                java.net.URI.create("http://localhost:" + port + URI + "/export?format=csv"));
+        if (!acceptEncoding.isEmpty()) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            export = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        assertThat(export.statusCode()).isEqualTo(200);
+        assertThat(export.headers().firstValue(HttpHeaders.VARY)).hasValue(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Then("The export is encoded as {string} and contains the added customer")
+    public void the_export_is_encoded_as_and_contains_the_added_customer(String contentEncoding) throws IOException {
+        byte[] body = export.body();
+        if (contentEncoding.isEmpty()) {
+            assertThat(export.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        } else {
+            assertThat(export.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue(contentEncoding);
+            try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = inputStream.readAllBytes();
+            }
+        }
+
+        List<String> lines = new String(body, StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,name,email,age");
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .startsWith(customer.getId() + ",")
+                .contains("," + customer.getEmail() + ","));
+    }
+
     @When("Generating customer update request")
     public void generating_customer_update_request(CustomerUpdateRequest updateRequest) {
         this.updateRequest = updateRequest;
@@ -184,5 +502,19 @@ public class CustomerIntegrationTestSteps {
             // ignore
         }
 
+        batchResults.stream()
+                .filter(result -> result.getId() != null)
+                .forEach(result -> webTestClient.delete()
+                        .uri(URI + "/{id}", result.getId())
+                        .exchange());
+        batchResults = List.of();
+
+        if (importedCustomer != null && importedCustomer.getId() != null) {
+            webTestClient.delete()
+                    .uri(URI + "/{id}", importedCustomer.getId())
+                    .exchange();
+        }
+        importedCustomer = null;
+
     }
 }
@@ -0,0 +1,135 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// runs every CustomerDao operation against both implementations on the Testcontainers database,
+// reporting throughput, latency percentiles and, with the gc profiler, allocation per operation:
+// mvn -Pbenchmark test -Djmh.args="CustomerDaoBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CustomerDaoBenchmark extends AbstractTestcontainersUnitTest {
+
+    private static final int SEEDED_CUSTOMERS = 1000;
+
+    @Param({"jdbc", "jpa"})
+    private String implementation;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerDao customerDao;
+
+    private Long existingId;
+    private String existingEmail;
+    private Long lastSeededId;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgreSQLContainer.start();
+        migrate();
+
+        // passed as command line arguments, default properties would lose against application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                        "--spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=warn");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        customerDao = context.getBean(implementation, CustomerDao.class);
+
+        jdbcTemplate.update("TRUNCATE customer");
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) " +
+                            "SELECT 'Customer ' || i, 'customer' || i || '@mail.com', 20 + i % 50 " +
+                            "FROM generate_series(1, ?) i", SEEDED_CUSTOMERS);
+        existingId = jdbcTemplate.queryForObject("SELECT min(id) FROM customer", Long.class);
+        existingEmail = jdbcTemplate.queryForObject("SELECT email FROM customer WHERE id = ?", String.class, existingId);
+        lastSeededId = jdbcTemplate.queryForObject("SELECT max(id) FROM customer", Long.class);
+    }
+
+    // keeps the table at the seeded size so every iteration measures the same data volume
+    @TearDown(Level.Iteration)
+    public void removeInsertedCustomers() {
+        jdbcTemplate.update("DELETE FROM customer WHERE id > ?", lastSeededId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgreSQLContainer.stop();
+    }
+
+    @Benchmark
+    public Optional<Customer> findCustomerById() {
+        return customerDao.findCustomerById(existingId);
+    }
+
+    @Benchmark
+    public List<Customer> findAllCustomers() {
+        return customerDao.findAllCustomers();
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return customerDao.existsByEmail(existingEmail);
+    }
+
+    @Benchmark
+    public Customer save() {
+        return customerDao.save(new Customer(null, "New customer", "new" + sequence++ + "@mail.com", 30));
+    }
+
+    @Benchmark
+    public Optional<CustomerChange> updateCustomer() {
+        // alternate the age so that every call changes the row
+        return customerDao.updateCustomer(new Customer(existingId, null, null, 20 + (int) (sequence++ % 2)));
+    }
+
+    @Benchmark
+    public Optional<Customer> deleteById(DeletableCustomer deletableCustomer) {
+        return customerDao.deleteById(deletableCustomer.id);
+    }
+
+    // a fresh row for every deleteById call, inserted outside the measurement
+    @State(Scope.Thread)
+    public static class DeletableCustomer {
+
+        private Long id;
+
+        @Setup(Level.Invocation)
+        public void insert(CustomerDaoBenchmark benchmark) {
+            id = benchmark.jdbcTemplate.queryForObject("INSERT INTO customer(name, email, age) " +
+                                                       "VALUES ('Deletable', ?, 30) RETURNING id",
+                    Long.class, "deletable" + benchmark.sequence++ + "@mail.com");
+        }
+    }
+}
@@ -2,9 +2,24 @@ package com.example.demo.customer.dao;
 
 import com.example.demo.customer.AbstractTestcontainersUnitTest;
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerExportFormat;
+import com.example.demo.customer.model.CustomerNameMatch;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerSearchSort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -13,6 +28,7 @@ import java.util.UUID;
 import static com.example.demo.customer.utils.TestUtils.FAKER;
 import static com.example.demo.customer.utils.TestUtils.getCustomer;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
@@ -33,6 +49,58 @@ class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         assertThat(allCustomers.contains(customer)).isTrue();
     }
 
+    @Test
+    void findCustomersAfter() {
+        Customer first = jdbcDataAccessService.save(getCustomer());
+        Customer second = jdbcDataAccessService.save(getCustomer());
+
+        List<Customer> customers = jdbcDataAccessService.findCustomersAfter(first.getId(), 1);
+
+        assertThat(customers).hasSize(1);
+        assertThat(customers.get(0).getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    void streamAllCustomers() {
+        Customer customer = getCustomer();
+        jdbcDataAccessService.save(customer);
+
+        List<Customer> streamed = new ArrayList<>();
+        jdbcDataAccessService.streamAllCustomers(streamed::add);
+
+        assertThat(streamed).contains(customer);
+    }
+
+    @Test
+    void copyAllCustomers() {
+        Customer saved = jdbcDataAccessService.save(new Customer(null, "Ada, \"The Countess\"",
+                UUID.randomUUID() + FAKER.internet().safeEmailAddress(), 36));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long copied = jdbcDataAccessService.copyAllCustomers(CustomerExportFormat.CSV, csv);
+        ByteArrayOutputStream tsv = new ByteArrayOutputStream();
+        jdbcDataAccessService.copyAllCustomers(CustomerExportFormat.TSV, tsv);
+
+        List<String> csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvLines).hasSize(Math.toIntExact(copied) + 1);
+        assertThat(csvLines.get(0)).isEqualTo("id,name,email,age");
+        assertThat(csvLines).contains(saved.getId() + ",\"Ada, \"\"The Countess\"\"\"," + saved.getEmail() + ",36");
+        assertThat(tsv.toString(StandardCharsets.UTF_8).lines())
+                .startsWith("id\tname\temail\tage")
+                .contains(saved.getId() + "\t\"Ada, \"\"The Countess\"\"\"\t" + saved.getEmail() + "\t36");
+    }
+
+    @Test
+    void countCustomersByAgeAndEmailDomain() {
+        String domain = UUID.randomUUID() + ".test";
+        int age = 130 + new Random().nextInt(1000);
+        jdbcDataAccessService.save(new Customer(null, FAKER.name().fullName(), "one@" + domain, age));
+        jdbcDataAccessService.save(new Customer(null, FAKER.name().fullName(), "two@" + domain.toUpperCase(), age));
+
+        assertThat(jdbcDataAccessService.countCustomersByAge()).containsEntry(age, 2L);
+        assertThat(jdbcDataAccessService.countCustomersByEmailDomain()).containsEntry(domain, 2L);
+    }
+
     @Test
     void findCustomerById() {
         Customer customer = getCustomer();
@@ -44,6 +112,165 @@ class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
                 .hasValueSatisfying(cust -> assertThat(cust.equals(customer)).isTrue());
     }
 
+    @Test
+    void findCustomerByIdReturnsEmptyWhenDoesNotExists() {
+        Optional<Customer> customerById = jdbcDataAccessService.findCustomerById(-1L);
+
+        assertThat(customerById).isEmpty();
+    }
+
+    @Test
+    void searchCustomersByNamePrefixAndAgeRange() {
+        String prefix = UUID.randomUUID().toString();
+        Customer young = jdbcDataAccessService.save(new Customer(null, prefix + " Young", UUID.randomUUID() + "@young.test", 20));
+        Customer old = jdbcDataAccessService.save(new Customer(null, prefix + " Old", UUID.randomUUID() + "@old.test", 60));
+        jdbcDataAccessService.save(new Customer(null, "Not " + prefix, UUID.randomUUID() + "@old.test", 60));
+
+        List<Customer> all = jdbcDataAccessService.searchCustomers(search(prefix, CustomerNameMatch.PREFIX,
+                null, null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null));
+        List<Customer> older = jdbcDataAccessService.searchCustomers(search(prefix, CustomerNameMatch.PREFIX,
+                null, 30, 70, CustomerSearchSort.ID, Sort.Direction.ASC, null));
+
+        assertThat(all).extracting(Customer::getId).containsExactly(young.getId(), old.getId());
+        assertThat(older).extracting(Customer::getId).containsExactly(old.getId());
+    }
+
+    @Test
+    void searchCustomersByNameSubstringMatchesWildcardsLiterally() {
+        String infix = UUID.randomUUID().toString();
+        Customer customer = jdbcDataAccessService.save(new Customer(null, "A " + infix + "%_ B",
+                UUID.randomUUID() + "@mail.test", 30));
+        jdbcDataAccessService.save(new Customer(null, "A " + infix + "xx B", UUID.randomUUID() + "@mail.test", 30));
+
+        List<Customer> customers = jdbcDataAccessService.searchCustomers(search(infix + "%_", CustomerNameMatch.CONTAINS,
+                null, null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null));
+
+        assertThat(customers).extracting(Customer::getId).containsExactly(customer.getId());
+    }
+
+    @Test
+    void searchCustomersByEmailDomain() {
+        String domain = UUID.randomUUID() + ".test";
+        Customer customer = jdbcDataAccessService.save(new Customer(null, FAKER.name().fullName(), "someone@" + domain, 30));
+        jdbcDataAccessService.save(new Customer(null, FAKER.name().fullName(), "someone@sub." + domain + ".org", 30));
+
+        List<Customer> customers = jdbcDataAccessService.searchCustomers(search(null, CustomerNameMatch.PREFIX,
+                domain, null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null));
+
+        assertThat(customers).extracting(Customer::getId).containsExactly(customer.getId());
+    }
+
+    @Test
+    void searchCustomersPagesThroughTheSortWithTheKeyset() {
+        String prefix = UUID.randomUUID().toString();
+        Customer first = jdbcDataAccessService.save(new Customer(null, prefix + " b", UUID.randomUUID() + "@mail.test", 30));
+        Customer second = jdbcDataAccessService.save(new Customer(null, prefix + " b", UUID.randomUUID() + "@mail.test", 30));
+        Customer third = jdbcDataAccessService.save(new Customer(null, prefix + " a", UUID.randomUUID() + "@mail.test", 30));
+
+        List<Customer> firstPage = jdbcDataAccessService.searchCustomers(search(prefix, CustomerNameMatch.PREFIX,
+                null, null, null, CustomerSearchSort.NAME, Sort.Direction.DESC, null, 2));
+        List<Customer> secondPage = jdbcDataAccessService.searchCustomers(search(prefix, CustomerNameMatch.PREFIX,
+                null, null, null, CustomerSearchSort.NAME, Sort.Direction.DESC, firstPage.get(1), 2));
+
+        assertThat(firstPage).extracting(Customer::getId).containsExactly(second.getId(), first.getId());
+        assertThat(secondPage).extracting(Customer::getId).containsExactly(third.getId());
+    }
+
+    @Test
+    void searchCustomerIdsReturnsTheIdsOfTheSearch() {
+        String prefix = UUID.randomUUID().toString();
+        Customer first = jdbcDataAccessService.save(new Customer(null, prefix + " a", UUID.randomUUID() + "@mail.test", 30));
+        Customer second = jdbcDataAccessService.save(new Customer(null, prefix + " b", UUID.randomUUID() + "@mail.test", 30));
+        jdbcDataAccessService.save(new Customer(null, prefix + " c", UUID.randomUUID() + "@mail.test", 30));
+
+        List<Long> ids = jdbcDataAccessService.searchCustomerIds(search(prefix, CustomerNameMatch.PREFIX,
+                null, null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null, 2));
+
+        assertThat(ids).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void searchCustomersIsServedByIndexes() {
+        Customer after = new Customer(1L, "m", null, 40);
+
+        assertThat(explain(search("ab", CustomerNameMatch.PREFIX,
+                null, null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null)))
+                .noneMatch(line -> line.contains("Seq Scan"));
+        assertThat(explain(search("abc", CustomerNameMatch.CONTAINS,
+                null, null, null, CustomerSearchSort.NAME, Sort.Direction.ASC, after)))
+                .noneMatch(line -> line.contains("Seq Scan"));
+        assertThat(explain(search(null, CustomerNameMatch.PREFIX,
+                "example.com", null, null, CustomerSearchSort.ID, Sort.Direction.DESC, null)))
+                .noneMatch(line -> line.contains("Seq Scan"));
+        assertThat(explain(search(null, CustomerNameMatch.PREFIX,
+                null, 20, 30, CustomerSearchSort.AGE, Sort.Direction.DESC, after)))
+                .noneMatch(line -> line.contains("Seq Scan"));
+    }
+
+    // the planner prefers a sequential scan of a small table, forbidding it shows whether an index can serve the query
+    private static List<String> explain(CustomerSearchCriteria criteria) {
+        List<String> plan = new ArrayList<>();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(postgreSQLContainer.getJdbcUrl(),
+                postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword(), true);
+        JdbcTemplate explainingTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, @Nullable Object... args) {
+                plan.addAll(super.query("EXPLAIN " + sql, SingleColumnRowMapper.newInstance(String.class), args));
+                return List.of();
+            }
+        };
+
+        try {
+            explainingTemplate.execute("SET enable_seqscan = off");
+            new CustomerJdbcDataAccessService(explainingTemplate).searchCustomers(criteria);
+        } finally {
+            dataSource.destroy();
+        }
+        return plan;
+    }
+
+    private static CustomerSearchCriteria search(String name, CustomerNameMatch nameMatch, String emailDomain,
+                                                 Integer minAge, Integer maxAge, CustomerSearchSort sort,
+                                                 Sort.Direction direction, Customer after) {
+        return search(name, nameMatch, emailDomain, minAge, maxAge, sort, direction, after, 100);
+    }
+
+    private static CustomerSearchCriteria search(String name, CustomerNameMatch nameMatch, String emailDomain,
+                                                 Integer minAge, Integer maxAge, CustomerSearchSort sort,
+                                                 Sort.Direction direction, Customer after, int limit) {
+        return new CustomerSearchCriteria(name == null ? null : name.toLowerCase(), nameMatch, emailDomain,
+                minAge, maxAge, sort, direction, after, limit);
+    }
+
+    @Test
+    void findVersionById() {
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        Optional<Long> version = jdbcDataAccessService.findVersionById(saved.getId());
+
+        assertThat(version).contains(0L);
+    }
+
+    @Test
+    void findVersionByIdReturnsEmptyWhenDoesNotExists() {
+        Optional<Long> version = jdbcDataAccessService.findVersionById(-1L);
+
+        assertThat(version).isEmpty();
+    }
+
+    @Test
+    void updateCustomerIncrementsVersion() {
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        Optional<Customer> updatedCustomer = jdbcDataAccessService.updateCustomer(
+                new Customer(saved.getId(), FAKER.name().fullName(), null, null))
+                .map(CustomerChange::getCurrent);
+
+        assertThat(updatedCustomer).isPresent()
+                .hasValueSatisfying(updated -> assertThat(updated.getVersion()).isEqualTo(saved.getVersion() + 1));
+        assertThat(jdbcDataAccessService.findVersionById(saved.getId())).contains(saved.getVersion() + 1);
+    }
+
     @Test
     void existsByEmail() {
         Customer customer = getCustomer();
@@ -70,6 +297,46 @@ class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         assertThat(saved.equals(customer)).isTrue();
     }
 
+    @Test
+    void saveIfEmailAbsent() {
+        Customer customer = getCustomer();
+
+        Optional<Customer> saved = jdbcDataAccessService.saveIfEmailAbsent(customer);
+
+        assertThat(saved).contains(customer);
+        assertThat(saved.get().getId()).isNotNull();
+    }
+
+    @Test
+    void saveIfEmailAbsentTakesOneIdOfTheSequence() {
+        Customer first = jdbcDataAccessService.saveIfEmailAbsent(getCustomer()).orElseThrow();
+        Customer second = jdbcDataAccessService.saveIfEmailAbsent(getCustomer()).orElseThrow();
+
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+    }
+
+    @Test
+    void saveIfEmailAbsentReturnsEmptyWhenEmailTaken() {
+        Customer existing = jdbcDataAccessService.save(getCustomer());
+        Customer duplicate = getCustomer();
+        duplicate.setEmail(existing.getEmail());
+
+        assertThat(jdbcDataAccessService.saveIfEmailAbsent(duplicate)).isEmpty();
+    }
+
+    @Test
+    void saveAll() {
+        Customer existing = jdbcDataAccessService.save(getCustomer());
+        Customer customer = getCustomer();
+        Customer duplicate = getCustomer();
+        duplicate.setEmail(existing.getEmail());
+
+        List<Customer> saved = jdbcDataAccessService.saveAll(List.of(customer, duplicate));
+
+        assertThat(saved).containsExactly(customer);
+        assertThat(saved.get(0).getId()).isNotNull();
+    }
+
     @Test
     void existsById() {
         Customer customer = getCustomer();
@@ -93,13 +360,22 @@ class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         Customer customer = getCustomer();
         Customer saved = jdbcDataAccessService.save(customer);
 
-        jdbcDataAccessService.deleteById(saved.getId());
+        Optional<Customer> deleted = jdbcDataAccessService.deleteById(saved.getId());
 
         boolean existsById = jdbcDataAccessService.existsById(saved.getId());
 
+        assertThat(deleted).contains(saved);
+        assertThat(deleted.get().getId()).isEqualTo(saved.getId());
         assertThat(existsById).isFalse();
     }
 
+    @Test
+    void deleteByIdReturnsEmptyWhenDoesNotExists() {
+        Optional<Customer> deleted = jdbcDataAccessService.deleteById(-1L);
+
+        assertThat(deleted).isEmpty();
+    }
+
     @Test
     void updateCustomer() {
         Customer customer = getCustomer();
@@ -109,9 +385,127 @@ class CustomerJdbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         saved.setEmail(UUID.randomUUID() + FAKER.internet().safeEmailAddress());
         saved.setAge(new Random().nextInt(16, 98));
 
-        Customer updatedCustomer = jdbcDataAccessService.updateCustomer(saved);
+        Optional<CustomerChange> change = jdbcDataAccessService.updateCustomer(saved);
+
+        assertThat(change).isPresent()
+                .hasValueSatisfying(updated -> {
+                    assertThat(updated.getCurrent().equals(customer)).isFalse();
+                    assertThat(updated.getCurrent().equals(saved)).isTrue();
+                    assertThat(updated.getCurrent().getVersion()).isEqualTo(1L);
+                    assertThat(updated.getPrevious().equals(customer)).isTrue();
+                    assertThat(updated.getPrevious().getId()).isEqualTo(saved.getId());
+                    assertThat(updated.getPrevious().getVersion()).isZero();
+                });
+    }
+
+    @Test
+    void updateCustomerOnlyChangesGivenFields() {
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+        String name = FAKER.name().fullName();
+
+        Optional<Customer> updatedCustomer = jdbcDataAccessService
+                .updateCustomer(new Customer(saved.getId(), name, null, null))
+                .map(CustomerChange::getCurrent);
+
+        assertThat(updatedCustomer).isPresent()
+                .hasValueSatisfying(updated -> {
+                    assertThat(updated.getName()).isEqualTo(name);
+                    assertThat(updated.getEmail()).isEqualTo(saved.getEmail());
+                    assertThat(updated.getAge()).isEqualTo(saved.getAge());
+                });
+    }
+
+    @Test
+    void updateCustomerReturnsEmptyWhenNoChanges() {
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        Optional<CustomerChange> change = jdbcDataAccessService.updateCustomer(saved);
+
+        assertThat(change).isEmpty();
+    }
+
+    @Test
+    void updateCustomerReturnsEmptyWhenDoesNotExists() {
+        Customer customer = getCustomer();
+        customer.setId(-1L);
+
+        Optional<CustomerChange> change = jdbcDataAccessService.updateCustomer(customer);
+
+        assertThat(change).isEmpty();
+    }
+
+    @Test
+    void mergeImportCreatesTheFirstLineOfEveryNewEmail() {
+        Customer existing = jdbcDataAccessService.save(getCustomer());
+        String email = UUID.randomUUID() + FAKER.internet().safeEmailAddress();
+        UUID importId = UUID.randomUUID();
+        String rows = importId + ",2,\"Ada, \"\"The Countess\"\"\"," + email + ",36\n" +
+                      importId + ",3,Taken," + existing.getEmail() + ",40\n" +
+                      importId + ",4,Again," + email + ",50\n";
+
+        assertThat(jdbcDataAccessService.copyIntoImportStaging(new StringReader(rows))).isEqualTo(3);
+        assertThat(jdbcDataAccessService.mergeImport(importId)).isEqualTo(1);
+
+        List<Customer> imported = new ArrayList<>();
+        jdbcDataAccessService.streamImportedCustomers(importId, imported::add);
+        assertThat(imported).singleElement().satisfies(customer -> {
+            assertThat(customer).isEqualTo(new Customer(null, "Ada, \"The Countess\"", email, 36));
+            assertThat(jdbcDataAccessService.findCustomerById(customer.getId()))
+                    .get()
+                    .usingRecursiveComparison()
+                    .isEqualTo(customer);
+        });
+        assertThat(jdbcDataAccessService.findImportDuplicates(importId, 10))
+                .containsExactly(entry(3L, existing.getEmail()), entry(4L, email));
+
+        jdbcDataAccessService.deleteImport(importId);
+        assertThat(jdbcDataAccessService.findImportDuplicates(importId, 10)).isEmpty();
+    }
 
-        assertThat(updatedCustomer.equals(customer)).isFalse();
-        assertThat(updatedCustomer.equals(saved)).isTrue();
+    @Test
+    void findExistingIds() {
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        List<Long> existingIds = jdbcDataAccessService.findExistingIds(List.of(saved.getId(), -1L));
+
+        assertThat(existingIds).containsExactly(saved.getId());
+    }
+
+    @Test
+    void deleteAllById() {
+        Customer first = jdbcDataAccessService.save(getCustomer());
+        Customer second = jdbcDataAccessService.save(getCustomer());
+        Customer kept = jdbcDataAccessService.save(getCustomer());
+
+        List<Customer> deleted = jdbcDataAccessService.deleteAllById(List.of(first.getId(), second.getId(), -1L));
+
+        assertThat(deleted).containsExactlyInAnyOrder(first, second);
+        assertThat(jdbcDataAccessService.findExistingIds(List.of(first.getId(), second.getId(), kept.getId())))
+                .containsExactly(kept.getId());
+    }
+
+    @Test
+    void updateAllByIdReturnsOnlyTheChangedCustomers() {
+        Customer changed = getCustomer();
+        changed.setAge(30);
+        changed = jdbcDataAccessService.save(changed);
+        Customer unchanged = getCustomer();
+        unchanged.setAge(40);
+        unchanged = jdbcDataAccessService.save(unchanged);
+
+        List<CustomerChange> changes = jdbcDataAccessService.updateAllById(
+                List.of(changed.getId(), unchanged.getId(), -1L), new Customer(null, null, null, 40));
+
+        Customer previous = changed;
+        assertThat(changes).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getPrevious()).isEqualTo(previous);
+                    assertThat(change.getPrevious().getVersion()).isZero();
+                    assertThat(change.getCurrent().getId()).isEqualTo(previous.getId());
+                    assertThat(change.getCurrent().getName()).isEqualTo(previous.getName());
+                    assertThat(change.getCurrent().getAge()).isEqualTo(40);
+                    assertThat(change.getCurrent().getVersion()).isEqualTo(1L);
+                });
+        assertThat(jdbcDataAccessService.findVersionById(unchanged.getId())).contains(0L);
     }
-}
\ No newline at end of file
+}
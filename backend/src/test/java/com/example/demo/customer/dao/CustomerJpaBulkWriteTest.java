@@ -0,0 +1,86 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.BaseSessionEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// counts the statements and batches Hibernate executes for a bulk save through the JPA path
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session.events.auto="
+                          + "com.example.demo.customer.dao.CustomerJpaBulkWriteTest$RoundTrips")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CustomerJpaBulkWriteTest extends AbstractTestcontainersUnitTest {
+
+    private static final int CUSTOMERS = 1000;
+
+    // hibernate.jdbc.batch_size in application.properties
+    private static final int BATCH_SIZE = 50;
+    // the default fetch size of BatchedSequence
+    private static final int FETCH_SIZE = 50;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void saveAllBatchesInsertsAndIdFetches() {
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(getCustomer());
+        }
+        CustomerJpaDataAccessService jpaDataAccessService = new CustomerJpaDataAccessService(customerRepository);
+        long lastId = lastSequenceValue();
+
+        RoundTrips.clear();
+        jpaDataAccessService.saveAll(customers);
+        entityManager.flush();
+
+        // ids left over from earlier tests never make up a whole fetch, the count is the same either way
+        long idFetches = CUSTOMERS / FETCH_SIZE;
+        // the lookup of the taken emails, then the id fetches
+        assertThat(RoundTrips.statements.get()).isEqualTo(1 + idFetches);
+        assertThat(RoundTrips.batches.get()).isEqualTo(CUSTOMERS / BATCH_SIZE);
+        // the sequence still increments by one, no ids are skipped between fetches
+        assertThat(lastSequenceValue() - lastId).isEqualTo(idFetches * FETCH_SIZE);
+    }
+
+    private long lastSequenceValue() {
+        return getJdbcTemplate().queryForObject("SELECT last_value FROM customer_id_seq", Long.class);
+    }
+
+    // instantiated by Hibernate for every session, the counts are shared
+    public static class RoundTrips extends BaseSessionEventListener {
+
+        private static final AtomicLong statements = new AtomicLong();
+        private static final AtomicLong batches = new AtomicLong();
+
+        static void clear() {
+            statements.set(0);
+            batches.set(0);
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statements.incrementAndGet();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batches.incrementAndGet();
+        }
+    }
+}
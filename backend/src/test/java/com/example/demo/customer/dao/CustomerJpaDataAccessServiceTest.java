@@ -1,20 +1,28 @@
 package com.example.demo.customer.dao;
 
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerNameMatch;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerSearchSort;
+import com.example.demo.customer.repository.CustomerChangeProjection;
+import com.example.demo.customer.repository.CustomerProjection;
 import com.example.demo.customer.repository.CustomerRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.example.demo.customer.utils.TestUtils.getCustomer;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +48,30 @@ class CustomerJpaDataAccessServiceTest {
         verify(customerRepository).findAll();
     }
 
+    @Test
+    void findCustomersAfter() {
+        when(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)))
+                .thenReturn(List.of(customer));
+
+        List<Customer> customers = jpaDataAccessService.findCustomersAfter(0L, 10);
+
+        assertThat(customers).containsExactly(customer);
+        verify(customerRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10));
+    }
+
+    @Test
+    void searchCustomerIds() {
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria(null, CustomerNameMatch.PREFIX, "mail.com",
+                null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null, 10);
+        when(customerRepository.findIds(criteria))
+                .thenReturn(List.of(1L, 2L));
+
+        List<Long> ids = jpaDataAccessService.searchCustomerIds(criteria);
+
+        assertThat(ids).containsExactly(1L, 2L);
+        verify(customerRepository).findIds(criteria);
+    }
+
     @Test
     void findCustomerById() {
         when(customerRepository.findById(customer.getId()))
@@ -52,6 +84,17 @@ class CustomerJpaDataAccessServiceTest {
         verify(customerRepository).findById(customer.getId());
     }
 
+    @Test
+    void findVersionById() {
+        when(customerRepository.findVersionById(customer.getId()))
+                .thenReturn(Optional.of(3L));
+
+        Optional<Long> version = jpaDataAccessService.findVersionById(customer.getId());
+
+        assertThat(version).contains(3L);
+        verify(customerRepository).findVersionById(customer.getId());
+    }
+
     @Test
     void existsByEmail() {
         when(customerRepository.existsByEmail(customer.getEmail()))
@@ -85,6 +128,35 @@ class CustomerJpaDataAccessServiceTest {
         verify(customerRepository).save(customer);
     }
 
+    @Test
+    void saveIfEmailAbsent() {
+        CustomerProjection projection = mock(CustomerProjection.class);
+        when(projection.getName()).thenReturn(customer.getName());
+        when(projection.getEmail()).thenReturn(customer.getEmail());
+        when(projection.getAge()).thenReturn(customer.getAge());
+        when(customerRepository.insertIfEmailAbsent(customer.getName(), customer.getEmail(), customer.getAge()))
+                .thenReturn(Optional.of(projection));
+
+        Optional<Customer> saved = jpaDataAccessService.saveIfEmailAbsent(customer);
+
+        assertThat(saved).contains(customer);
+        verify(customerRepository).insertIfEmailAbsent(customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    @Test
+    void saveAll() {
+        Customer existing = getCustomer();
+        when(customerRepository.findExistingEmails(List.of(customer.getEmail(), existing.getEmail())))
+                .thenReturn(Set.of(existing.getEmail()));
+        when(customerRepository.saveAll(List.of(customer)))
+                .thenReturn(List.of(customer));
+
+        List<Customer> saved = jpaDataAccessService.saveAll(List.of(customer, existing));
+
+        assertThat(saved).containsExactly(customer);
+        verify(customerRepository).saveAll(List.of(customer));
+    }
+
     @Test
     void existsById() {
         when(customerRepository.existsById(customer.getId()))
@@ -109,20 +181,91 @@ class CustomerJpaDataAccessServiceTest {
 
     @Test
     void deleteById() {
-        Mockito.doNothing().when(customerRepository).deleteById(customer.getId());
+        CustomerProjection projection = mock(CustomerProjection.class);
+        when(projection.getName()).thenReturn(customer.getName());
+        when(projection.getEmail()).thenReturn(customer.getEmail());
+        when(projection.getAge()).thenReturn(customer.getAge());
+        when(customerRepository.deleteCustomerById(customer.getId()))
+                .thenReturn(Optional.of(projection));
+
+        Optional<Customer> deleted = jpaDataAccessService.deleteById(customer.getId());
 
-        assertThatNoException().isThrownBy(() -> jpaDataAccessService.deleteById(customer.getId()));
-        verify(customerRepository).deleteById(customer.getId());
+        assertThat(deleted).contains(customer);
+        verify(customerRepository).deleteCustomerById(customer.getId());
+    }
+
+    @Test
+    void deleteByIdReturnsEmptyWhenDoesNotExists() {
+        when(customerRepository.deleteCustomerById(customer.getId()))
+                .thenReturn(Optional.empty());
+
+        Optional<Customer> deleted = jpaDataAccessService.deleteById(customer.getId());
+
+        assertThat(deleted).isEmpty();
+        verify(customerRepository).deleteCustomerById(customer.getId());
     }
 
     @Test
     void updateCustomer() {
-        when(customerRepository.save(customer))
-                .thenReturn(customer);
+        Customer previous = getCustomer();
+        CustomerChangeProjection projection = mock(CustomerChangeProjection.class);
+        when(projection.getName()).thenReturn(customer.getName());
+        when(projection.getEmail()).thenReturn(customer.getEmail());
+        when(projection.getAge()).thenReturn(customer.getAge());
+        when(projection.getPreviousName()).thenReturn(previous.getName());
+        when(projection.getPreviousEmail()).thenReturn(previous.getEmail());
+        when(projection.getPreviousAge()).thenReturn(previous.getAge());
+        when(customerRepository.updateCustomer(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getAge()))
+                .thenReturn(Optional.of(projection));
+
+        Optional<CustomerChange> change = jpaDataAccessService.updateCustomer(customer);
+
+        assertThat(change).contains(new CustomerChange(previous, customer));
+        verify(customerRepository).updateCustomer(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getAge());
+    }
 
-        Customer updatedCustomer = jpaDataAccessService.updateCustomer(customer);
+    @Test
+    void findExistingIds() {
+        when(customerRepository.findExistingIds(List.of(1L, 2L)))
+                .thenReturn(List.of(2L));
 
-        assertThat(updatedCustomer).isEqualTo(customer);
-        verify(customerRepository).save(customer);
+        List<Long> existingIds = jpaDataAccessService.findExistingIds(List.of(1L, 2L));
+
+        assertThat(existingIds).containsExactly(2L);
+    }
+
+    @Test
+    void deleteAllById() {
+        CustomerProjection projection = mock(CustomerProjection.class);
+        when(projection.getName()).thenReturn(customer.getName());
+        when(projection.getEmail()).thenReturn(customer.getEmail());
+        when(projection.getAge()).thenReturn(customer.getAge());
+        when(customerRepository.deleteCustomersByIds(new Long[]{1L, 2L}))
+                .thenReturn(List.of(projection));
+
+        List<Customer> deleted = jpaDataAccessService.deleteAllById(List.of(1L, 2L));
+
+        assertThat(deleted).containsExactly(customer);
+    }
+
+    @Test
+    void updateAllById() {
+        Customer previous = getCustomer();
+        CustomerChangeProjection projection = mock(CustomerChangeProjection.class);
+        when(projection.getName()).thenReturn(customer.getName());
+        when(projection.getEmail()).thenReturn(customer.getEmail());
+        when(projection.getAge()).thenReturn(customer.getAge());
+        when(projection.getPreviousName()).thenReturn(previous.getName());
+        when(projection.getPreviousEmail()).thenReturn(previous.getEmail());
+        when(projection.getPreviousAge()).thenReturn(previous.getAge());
+        when(customerRepository.updateCustomersByIds(new Long[]{1L, 2L}, null, null, customer.getAge()))
+                .thenReturn(List.of(projection));
+
+        List<CustomerChange> changes = jpaDataAccessService.updateAllById(List.of(1L, 2L),
+                new Customer(null, null, null, customer.getAge()));
+
+        assertThat(changes).containsExactly(new CustomerChange(previous, customer));
     }
-}
\ No newline at end of file
+}
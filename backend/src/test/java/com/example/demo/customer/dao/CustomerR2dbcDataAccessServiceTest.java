@@ -0,0 +1,130 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import com.example.demo.customer.entity.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.demo.customer.utils.TestUtils.FAKER;
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerR2dbcDataAccessServiceTest extends AbstractTestcontainersUnitTest {
+
+    private CustomerR2dbcDataAccessService r2dbcDataAccessService;
+
+    @BeforeEach
+    void setUp() {
+        r2dbcDataAccessService = new CustomerR2dbcDataAccessService(DatabaseClient.create(getConnectionFactory()));
+    }
+
+    @Test
+    void findCustomersAfter() {
+        Customer first = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+        Customer second = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+
+        StepVerifier.create(r2dbcDataAccessService.findCustomersAfter(first.getId(), 1))
+                .assertNext(customer -> assertThat(customer.getId()).isEqualTo(second.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void findCustomerById() {
+        Customer customer = getCustomer();
+        Customer saved = r2dbcDataAccessService.saveIfEmailAbsent(customer).block();
+
+        StepVerifier.create(r2dbcDataAccessService.findCustomerById(saved.getId()))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void findCustomerByIdCompletesEmptyWhenDoesNotExists() {
+        StepVerifier.create(r2dbcDataAccessService.findCustomerById(-1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void saveIfEmailAbsent() {
+        Customer customer = getCustomer();
+
+        StepVerifier.create(r2dbcDataAccessService.saveIfEmailAbsent(customer))
+                .assertNext(saved -> {
+                    assertThat(saved).isEqualTo(customer);
+                    assertThat(saved.getId()).isNotNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void saveIfEmailAbsentCompletesEmptyWhenEmailTaken() {
+        Customer existing = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+        Customer duplicate = getCustomer();
+        duplicate.setEmail(existing.getEmail());
+
+        StepVerifier.create(r2dbcDataAccessService.saveIfEmailAbsent(duplicate))
+                .verifyComplete();
+    }
+
+    @Test
+    void saveAll() {
+        Customer existing = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+        Customer customer = getCustomer();
+        Customer duplicate = getCustomer();
+        duplicate.setEmail(existing.getEmail());
+
+        StepVerifier.create(r2dbcDataAccessService.saveAll(List.of(customer, duplicate)))
+                .expectNext(customer)
+                .verifyComplete();
+    }
+
+    @Test
+    void existsById() {
+        Customer saved = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+
+        StepVerifier.create(r2dbcDataAccessService.existsById(saved.getId()))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(r2dbcDataAccessService.existsById(-1L))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteById() {
+        Customer saved = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+
+        StepVerifier.create(r2dbcDataAccessService.deleteById(saved.getId()))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(r2dbcDataAccessService.deleteById(saved.getId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateCustomerOnlyChangesGivenFields() {
+        Customer saved = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+        String name = FAKER.name().fullName();
+
+        StepVerifier.create(r2dbcDataAccessService.updateCustomer(new Customer(saved.getId(), name, null, null)))
+                .assertNext(updated -> {
+                    assertThat(updated.getName()).isEqualTo(name);
+                    assertThat(updated.getEmail()).isEqualTo(saved.getEmail());
+                    assertThat(updated.getAge()).isEqualTo(saved.getAge());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void updateCustomerCompletesEmptyWhenNoChanges() {
+        Customer saved = r2dbcDataAccessService.saveIfEmailAbsent(getCustomer()).block();
+
+        StepVerifier.create(r2dbcDataAccessService.updateCustomer(saved))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// compares the reflective mapper the DAO used to create per call with the shared hand-written one:
+// mvn -Pbenchmark test -Djmh.args="CustomerRowMapperBenchmark -prof gc"
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerRowMapperBenchmark {
+
+    private static final String[] COLUMNS = {"id", "name", "email", "age", "version"};
+
+    @Param({"1", "100"})
+    private int rows;
+
+    private Object[][] table;
+    private ResultSet resultSet;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        table = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            table[i] = new Object[]{(long) i, "Customer " + i, "customer" + i + "@mail.com", 20 + i % 50, 0L};
+        }
+        resultSet = inMemoryResultSet();
+    }
+
+    @Benchmark
+    public List<Customer> beanPropertyRowMapper() throws SQLException {
+        return mapAll(new BeanPropertyRowMapper<>(Customer.class));
+    }
+
+    @Benchmark
+    public List<Customer> customerRowMapper() throws SQLException {
+        return mapAll(CustomerRowMapper.INSTANCE);
+    }
+
+    private List<Customer> mapAll(RowMapper<Customer> rowMapper) throws SQLException {
+        List<Customer> customers = new ArrayList<>(rows);
+        for (cursor = 0; cursor < rows; cursor++) {
+            customers.add(rowMapper.mapRow(resultSet, cursor));
+        }
+        return customers;
+    }
+
+    // a result set over the in-memory table, so only the mapping itself is measured
+    private ResultSet inMemoryResultSet() {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> COLUMNS.length;
+                    case "getColumnLabel", "getColumnName" -> COLUMNS[(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> metaData;
+                    case "getLong", "getString", "getInt", "getObject" -> table[cursor][(Integer) args[0] - 1];
+                    case "wasNull" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
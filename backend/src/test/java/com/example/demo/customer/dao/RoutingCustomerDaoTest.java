@@ -0,0 +1,103 @@
+package com.example.demo.customer.dao;
+
+import com.example.demo.customer.entity.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoutingCustomerDaoTest {
+
+    @Mock
+    private CustomerDao jdbc;
+
+    @Mock
+    private CustomerDao jpa;
+
+    private final CustomerDaoRoutingProperties properties = new CustomerDaoRoutingProperties();
+
+    private RoutingCustomerDao routingCustomerDao;
+
+    private final Customer customer = getCustomer();
+
+    @BeforeEach
+    void setUp() {
+        properties.getOperations().put(CustomerDaoOperation.FIND_CUSTOMER_BY_ID, "jdbc");
+        routingCustomerDao = new RoutingCustomerDao(Map.of("jdbc", jdbc, "jpa", jpa), properties);
+        customer.setId(1L);
+    }
+
+    @Test
+    void configuredOperationGoesToItsImplementation() {
+        when(jdbc.findCustomerById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+
+        Optional<Customer> found = routingCustomerDao.findCustomerById(customer.getId());
+
+        assertThat(found).contains(customer);
+        verifyNoInteractions(jpa);
+    }
+
+    @Test
+    void unconfiguredOperationGoesToDefaultImplementation() {
+        when(jpa.findAllCustomers())
+                .thenReturn(List.of(customer));
+
+        List<Customer> customers = routingCustomerDao.findAllCustomers();
+
+        assertThat(customers).containsExactly(customer);
+        assertThat(routingCustomerDao.getRoutes())
+                .containsEntry(CustomerDaoOperation.FIND_CUSTOMER_BY_ID, "jdbc")
+                .containsEntry(CustomerDaoOperation.FIND_ALL_CUSTOMERS, "jpa");
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void routeChangesImplementationAtRuntime() {
+        routingCustomerDao.route(CustomerDaoOperation.FIND_CUSTOMER_BY_ID, "jpa");
+
+        routingCustomerDao.findCustomerById(customer.getId());
+
+        verify(jpa).findCustomerById(customer.getId());
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void resetRestoresConfiguredRoutes() {
+        routingCustomerDao.route(CustomerDaoOperation.FIND_CUSTOMER_BY_ID, "jpa");
+
+        routingCustomerDao.reset();
+        routingCustomerDao.findCustomerById(customer.getId());
+
+        verify(jdbc).findCustomerById(customer.getId());
+    }
+
+    @Test
+    void routeToUnknownImplementationThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> routingCustomerDao.route(CustomerDaoOperation.SAVE, "mongo"));
+
+        assertThat(routingCustomerDao.getRoutes()).containsEntry(CustomerDaoOperation.SAVE, "jpa");
+    }
+
+    @Test
+    void unknownConfiguredImplementationFailsOnStartup() {
+        properties.getOperations().put(CustomerDaoOperation.SAVE, "mongo");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new RoutingCustomerDao(Map.of("jdbc", jdbc, "jpa", jpa), properties));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.customer.event;
+
+import com.example.demo.customer.AbstractTestcontainersUnitTest;
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent.ChangeType;
+import com.example.demo.customer.model.CustomerChangeNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerChangeListenerTest extends AbstractTestcontainersUnitTest {
+
+    private static final int IMPORTED_CUSTOMERS = 500;
+    // V8__Notify_Customer_Changes_Per_Statement.sql, a larger statement is announced by its count
+    private static final int ANNOUNCED_ONE_BY_ONE = 100;
+
+    private final BlockingQueue<Object> published = new LinkedBlockingQueue<>();
+    private final CustomerJdbcDataAccessService jdbcDataAccessService =
+            new CustomerJdbcDataAccessService(getJdbcTemplate());
+    private CustomerChangeListener customerChangeListener;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(postgreSQLContainer.getJdbcUrl());
+        dataSourceProperties.setUsername(postgreSQLContainer.getUsername());
+        dataSourceProperties.setPassword(postgreSQLContainer.getPassword());
+        customerChangeListener = new CustomerChangeListener(dataSourceProperties, new ObjectMapper(),
+                published::add, Duration.ofMillis(100));
+
+        customerChangeListener.start();
+        for (int i = 0; i < 100 && !customerChangeListener.isListening(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(customerChangeListener.isListening()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerChangeListener.stop();
+    }
+
+    @Test
+    void publishesEveryCommittedChangeOfACustomer() throws InterruptedException {
+        Customer customer = jdbcDataAccessService.save(getCustomer());
+        customer.setAge(customer.getAge() + 1);
+        jdbcDataAccessService.updateCustomer(customer);
+        jdbcDataAccessService.deleteById(customer.getId());
+
+        assertThat(nextNotificationFor(customer.getId()))
+                .isEqualTo(new CustomerChangeNotification(ChangeType.CREATED, customer.getId(), 0L));
+        assertThat(nextNotificationFor(customer.getId()))
+                .isEqualTo(new CustomerChangeNotification(ChangeType.UPDATED, customer.getId(), 1L));
+        assertThat(nextNotificationFor(customer.getId()))
+                .isEqualTo(new CustomerChangeNotification(ChangeType.DELETED, customer.getId(), 1L));
+    }
+
+    @Test
+    void doesNotPublishRolledBackChanges() throws InterruptedException {
+        DataSource dataSource = getDataSource();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        Customer rolledBack = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return new CustomerJdbcDataAccessService(new JdbcTemplate(dataSource)).save(getCustomer());
+        });
+        Customer committed = jdbcDataAccessService.save(getCustomer());
+
+        // notifications are delivered in commit order, the rolled back insert would have come first
+        assertThat(notificationsUntil(committed.getId()))
+                .extracting(CustomerChangeNotification::getId)
+                .doesNotContain(rolledBack.getId())
+                .endsWith(committed.getId());
+    }
+
+    @Test
+    void sumsUpAnImportInOneNotification() throws InterruptedException {
+        UUID importId = UUID.randomUUID();
+        StringBuilder rows = new StringBuilder();
+        for (int line = 2; line < 2 + IMPORTED_CUSTOMERS; line++) {
+            rows.append(importId).append(',').append(line).append(",Imported,")
+                    .append(UUID.randomUUID()).append("@import.test,30\n");
+        }
+        jdbcDataAccessService.copyIntoImportStaging(new StringReader(rows.toString()));
+        jdbcDataAccessService.mergeImport(importId);
+        jdbcDataAccessService.deleteImport(importId);
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        // the merge is one statement, a watcher gets one notification for it instead of one per customer
+        assertThat(notificationsUntil(saved.getId()))
+                .hasSizeLessThan(IMPORTED_CUSTOMERS)
+                .containsSubsequence(
+                        new CustomerChangeNotification(ChangeType.CREATED, null, null, (long) IMPORTED_CUSTOMERS),
+                        new CustomerChangeNotification(ChangeType.CREATED, saved.getId(), 0L));
+    }
+
+    @Test
+    void announcesAStatementOfUpToOneHundredCustomersOneByOne() throws InterruptedException {
+        List<Long> ids = saveCustomers(ANNOUNCED_ONE_BY_ONE);
+        jdbcDataAccessService.deleteAllById(ids);
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        assertThat(notificationsUntil(saved.getId()))
+                .filteredOn(notification -> notification.getType() == ChangeType.DELETED)
+                .extracting(CustomerChangeNotification::getId)
+                .containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void sumsUpAStatementOfMoreThanOneHundredCustomersInOneNotification() throws InterruptedException {
+        List<Long> ids = saveCustomers(ANNOUNCED_ONE_BY_ONE + 1);
+        jdbcDataAccessService.deleteAllById(ids);
+        Customer saved = jdbcDataAccessService.save(getCustomer());
+
+        assertThat(notificationsUntil(saved.getId()))
+                .filteredOn(notification -> notification.getType() == ChangeType.DELETED)
+                .containsExactly(new CustomerChangeNotification(ChangeType.DELETED, null, null,
+                        (long) ANNOUNCED_ONE_BY_ONE + 1));
+    }
+
+    // in one statement, the ids in ascending order
+    private List<Long> saveCustomers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(getCustomer());
+        }
+        return jdbcDataAccessService.saveAll(customers).stream()
+                .map(Customer::getId)
+                .sorted()
+                .toList();
+    }
+
+    private CustomerChangeNotification nextNotificationFor(Long id) throws InterruptedException {
+        List<CustomerChangeNotification> notifications = notificationsUntil(id);
+        return notifications.get(notifications.size() - 1);
+    }
+
+    // everything published up to the next notification for the customer, other tests share the database
+    private List<CustomerChangeNotification> notificationsUntil(Long id) throws InterruptedException {
+        List<CustomerChangeNotification> notifications = new ArrayList<>();
+        while (notifications.isEmpty() || !id.equals(notifications.get(notifications.size() - 1).getId())) {
+            Object event = published.poll(5, SECONDS);
+            assertThat(event).as("notification for customer %s", id).isInstanceOf(CustomerChangeNotification.class);
+            notifications.add((CustomerChangeNotification) event);
+        }
+        return notifications;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.customer.metrics;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.customer.service.CustomerNameIndex;
+import com.example.demo.customer.service.CustomerService;
+import com.example.demo.exception.DuplicateResourceException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.exception.RequestValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.Optional;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class CustomerMetricsAspectTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @Import({CustomerService.class, CustomerMetricsAspect.class})
+    static class Config {
+
+        @Bean("routing")
+        CustomerDao customerDao() {
+            return Mockito.mock(CustomerDao.class);
+        }
+
+        @Bean
+        CustomerNameIndex customerNameIndex() {
+            return Mockito.mock(CustomerNameIndex.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerDao customerDaoProxy;
+
+    // stubbing through the proxy would record metrics too
+    private CustomerDao customerDao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Customer customer = getCustomer();
+
+    @BeforeEach
+    void setUp() {
+        customerDao = AopTestUtils.getUltimateTargetObject(customerDaoProxy);
+        reset(customerDao);
+        meterRegistry.clear();
+        customer.setId(1L);
+    }
+
+    @Test
+    void findCustomerByIdIsTimedInServiceAndDao() {
+        when(customerDao.findCustomerById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+
+        customerService.findCustomerById(customer.getId());
+
+        assertThat(count("service", "findCustomerById", CustomerMetricsAspect.OK)).isEqualTo(1);
+        assertThat(count("dao", "findCustomerById", CustomerMetricsAspect.OK)).isEqualTo(1);
+        assertThat(meterRegistry.get(CustomerMetricsAspect.ROUND_TRIP_COUNTER)
+                .tag("operation", "findCustomerById")
+                .counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void findCustomerByIdWhenMissingIsTaggedNotFound() {
+        when(customerDao.findCustomerById(customer.getId()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> customerService.findCustomerById(customer.getId()));
+
+        assertThat(count("service", "findCustomerById", CustomerMetricsAspect.NOT_FOUND)).isEqualTo(1);
+        assertThat(count("dao", "findCustomerById", CustomerMetricsAspect.NOT_FOUND)).isEqualTo(1);
+    }
+
+    @Test
+    void saveCustomerWithTakenEmailIsTaggedDuplicate() {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest();
+        request.setName(customer.getName());
+        request.setEmail(customer.getEmail());
+        when(customerDao.saveIfEmailAbsent(any()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(DuplicateResourceException.class, () -> customerService.saveCustomer(request));
+
+        assertThat(count("service", "saveCustomer", CustomerMetricsAspect.DUPLICATE)).isEqualTo(1);
+        assertThat(count("dao", "saveIfEmailAbsent", CustomerMetricsAspect.DUPLICATE)).isEqualTo(1);
+    }
+
+    @Test
+    void updateCustomerChangingNoRowIsTaggedUnchangedOrMissing() {
+        when(customerDao.updateCustomer(any()))
+                .thenReturn(Optional.empty());
+        when(customerDao.existsById(customer.getId()))
+                .thenReturn(true);
+        CustomerUpdateRequest request = new CustomerUpdateRequest();
+        request.setName(customer.getName());
+
+        assertThrows(RequestValidationException.class,
+                () -> customerService.updateCustomer(customer.getId(), request));
+
+        assertThat(count("dao", "updateCustomer", CustomerMetricsAspect.UNCHANGED_OR_MISSING)).isEqualTo(1);
+        assertThat(count("service", "updateCustomer", CustomerMetricsAspect.INVALID)).isEqualTo(1);
+    }
+
+    @Test
+    void onlyCustomerDaoOperationsCountAsRoundTrips() {
+        // a class proxy, the methods the JDBC implementation adds to CustomerDao have to be reachable
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(Mockito.mock(CustomerJdbcDataAccessService.class));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new CustomerMetricsAspect(meterRegistry));
+        CustomerJdbcDataAccessService jdbcDataAccessService = proxyFactory.getProxy();
+
+        jdbcDataAccessService.streamAllCustomers(streamed -> {
+        });
+        jdbcDataAccessService.existsById(customer.getId());
+
+        assertThat(meterRegistry.get(CustomerMetricsAspect.ROUND_TRIP_COUNTER).counters())
+                .singleElement()
+                .satisfies(counter -> assertThat(counter.getId().getTag("operation")).isEqualTo("existsById"));
+        assertThat(meterRegistry.find(CustomerMetricsAspect.OPERATION_TIMER)
+                .tag("operation", "streamAllCustomers")
+                .timer()).isNull();
+    }
+
+    @Test
+    void unexpectedFailureIsTaggedError() {
+        when(customerDao.deleteById(customer.getId()))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        assertThrows(IllegalStateException.class, () -> customerService.deleteCustomer(customer.getId()));
+
+        assertThat(count("service", "deleteCustomer", CustomerMetricsAspect.ERROR)).isEqualTo(1);
+    }
+
+    private long count(String layer, String operation, String outcome) {
+        return meterRegistry.get(CustomerMetricsAspect.OPERATION_TIMER)
+                .tag("layer", layer)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -2,12 +2,18 @@ package com.example.demo.customer.repository;
 
 import com.example.demo.customer.AbstractTestcontainersUnitTest;
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerNameMatch;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerSearchSort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.example.demo.customer.utils.TestUtils.FAKER;
@@ -44,4 +50,159 @@ class CustomerRepositoryTest extends AbstractTestcontainersUnitTest {
 
         assertThat(existsByEmail).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertIfEmailAbsent() {
+        Customer customer = getCustomer();
+
+        Optional<CustomerProjection> inserted = customerRepository
+                .insertIfEmailAbsent(customer.getName(), customer.getEmail(), customer.getAge());
+
+        assertThat(inserted).isPresent()
+                .hasValueSatisfying(projection -> {
+                    assertThat(projection.getId()).isNotNull();
+                    assertThat(projection.getEmail()).isEqualTo(customer.getEmail());
+                });
+        assertThat(customerRepository
+                .insertIfEmailAbsent(customer.getName(), customer.getEmail(), customer.getAge())).isEmpty();
+    }
+
+    @Test
+    void updateCustomer() {
+        Customer saved = customerRepository.save(getCustomer());
+        String name = FAKER.name().fullName();
+
+        Optional<CustomerChangeProjection> updated = customerRepository.updateCustomer(saved.getId(), name, null, null);
+
+        assertThat(updated).isPresent()
+                .hasValueSatisfying(customer -> {
+                    assertThat(customer.getName()).isEqualTo(name);
+                    assertThat(customer.getEmail()).isEqualTo(saved.getEmail());
+                    assertThat(customer.getAge()).isEqualTo(saved.getAge());
+                    assertThat(customer.getVersion()).isEqualTo(saved.getVersion() + 1);
+                    assertThat(customer.getPreviousName()).isEqualTo(saved.getName());
+                    assertThat(customer.getPreviousEmail()).isEqualTo(saved.getEmail());
+                    assertThat(customer.getPreviousAge()).isEqualTo(saved.getAge());
+                    assertThat(customer.getPreviousVersion()).isEqualTo(saved.getVersion());
+                });
+        assertThat(customerRepository.findVersionById(saved.getId())).contains(saved.getVersion() + 1);
+    }
+
+    @Test
+    void updateCustomerReturnsEmptyWhenNoChanges() {
+        Customer saved = customerRepository.save(getCustomer());
+
+        Optional<CustomerChangeProjection> updated = customerRepository
+                .updateCustomer(saved.getId(), saved.getName(), saved.getEmail(), saved.getAge());
+
+        assertThat(updated).isEmpty();
+    }
+
+    @Test
+    void findByMatchingSpecificationFiltersByNameEmailDomainAndAge() {
+        Customer match = customerRepository.save(new Customer(null, "Ada Lovelace", "ada@engine.test", 36));
+        customerRepository.save(new Customer(null, "Ada Byron", "byron@poetry.test", 36));
+        customerRepository.save(new Customer(null, "Adam Smith", "adam@engine.test", 67));
+        customerRepository.save(new Customer(null, "Grace Hopper", "grace@engine.test", 36));
+
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("ada", CustomerNameMatch.PREFIX, "engine.test",
+                30, 40, CustomerSearchSort.ID, Sort.Direction.ASC, null, 10);
+
+        assertThat(search(criteria)).containsExactly(match);
+    }
+
+    @Test
+    void findByMatchingSpecificationMatchesSubstringsLiterally() {
+        Customer match = customerRepository.save(new Customer(null, "Ada 100% Lovelace", "ada@engine.test", 36));
+        customerRepository.save(new Customer(null, "Ada 1000 Lovelace", "ada1000@engine.test", 36));
+
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria("0% love", CustomerNameMatch.CONTAINS, null,
+                null, null, CustomerSearchSort.ID, Sort.Direction.ASC, null, 10);
+
+        assertThat(search(criteria)).containsExactly(match);
+    }
+
+    @Test
+    void findByMatchingSpecificationPagesThroughTheSortWithTheKeyset() {
+        Customer first = customerRepository.save(new Customer(null, "Ada", "first@engine.test", 40));
+        Customer second = customerRepository.save(new Customer(null, "Bea", "second@engine.test", 40));
+        Customer third = customerRepository.save(new Customer(null, "Cid", "third@engine.test", 20));
+
+        CustomerSearchCriteria firstPage = new CustomerSearchCriteria(null, CustomerNameMatch.PREFIX, null,
+                null, null, CustomerSearchSort.AGE, Sort.Direction.DESC, null, 1);
+        List<Customer> firstCustomers = search(firstPage);
+        CustomerSearchCriteria secondPage = new CustomerSearchCriteria(null, CustomerNameMatch.PREFIX, null,
+                null, null, CustomerSearchSort.AGE, Sort.Direction.DESC, firstCustomers.get(0), 10);
+
+        assertThat(firstCustomers).containsExactly(second);
+        assertThat(search(secondPage)).containsExactly(first, third);
+    }
+
+    @Test
+    void findIdsSelectsTheIdsOfTheMatchingSpecification() {
+        Customer first = customerRepository.save(new Customer(null, "Ada", "first@engine.test", 40));
+        Customer second = customerRepository.save(new Customer(null, "Bea", "second@engine.test", 40));
+        customerRepository.save(new Customer(null, "Cid", "third@engine.test", 20));
+
+        CustomerSearchCriteria criteria = new CustomerSearchCriteria(null, CustomerNameMatch.PREFIX, "engine.test",
+                30, null, CustomerSearchSort.NAME, Sort.Direction.DESC, null, 10);
+
+        assertThat(customerRepository.findIds(criteria)).containsExactly(second.getId(), first.getId());
+    }
+
+    private List<Customer> search(CustomerSearchCriteria criteria) {
+        return customerRepository.findBy(CustomerSpecifications.matching(criteria), query -> query
+                .sortBy(CustomerSpecifications.sort(criteria))
+                .limit(criteria.limit())
+                .all());
+    }
+
+    @Test
+    void deleteCustomerById() {
+        Customer saved = customerRepository.save(getCustomer());
+
+        assertThat(customerRepository.deleteCustomerById(saved.getId())).isPresent()
+                .hasValueSatisfying(deleted -> {
+                    assertThat(deleted.getId()).isEqualTo(saved.getId());
+                    assertThat(deleted.getEmail()).isEqualTo(saved.getEmail());
+                });
+        assertThat(customerRepository.deleteCustomerById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    void deleteCustomersByIds() {
+        Customer first = customerRepository.save(getCustomer());
+        Customer second = customerRepository.save(getCustomer());
+        Customer kept = customerRepository.save(getCustomer());
+
+        assertThat(customerRepository.deleteCustomersByIds(new Long[]{first.getId(), second.getId(), -1L}))
+                .extracting(CustomerProjection::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(customerRepository.findExistingIds(List.of(first.getId(), second.getId(), kept.getId())))
+                .containsExactly(kept.getId());
+    }
+
+    @Test
+    void updateCustomersByIds() {
+        Customer changed = getCustomer();
+        changed.setAge(30);
+        changed = customerRepository.save(changed);
+        Customer unchanged = getCustomer();
+        unchanged.setAge(40);
+        unchanged = customerRepository.save(unchanged);
+
+        List<CustomerChangeProjection> updated = customerRepository
+                .updateCustomersByIds(new Long[]{changed.getId(), unchanged.getId(), -1L}, null, null, 40);
+
+        Customer saved = changed;
+        assertThat(updated).singleElement()
+                .satisfies(customer -> {
+                    assertThat(customer.getId()).isEqualTo(saved.getId());
+                    assertThat(customer.getName()).isEqualTo(saved.getName());
+                    assertThat(customer.getAge()).isEqualTo(40);
+                    assertThat(customer.getVersion()).isEqualTo(saved.getVersion() + 1);
+                    assertThat(customer.getPreviousAge()).isEqualTo(30);
+                    assertThat(customer.getPreviousVersion()).isEqualTo(saved.getVersion());
+                });
+    }
+}
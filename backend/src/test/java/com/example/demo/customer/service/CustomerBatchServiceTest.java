@@ -0,0 +1,148 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.exception.RequestValidationException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.demo.customer.service.ValidationUtils.AGE_REQUIRED;
+import static com.example.demo.customer.service.ValidationUtils.EMAIL_DUPLICATE_ERROR;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_BATCH_SIZE;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_EMAIL;
+import static com.example.demo.customer.service.ValidationUtils.NAME_REQUIRED;
+import static com.example.demo.customer.utils.TestUtils.VALIDATOR;
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchServiceTest {
+
+    @InjectMocks
+    private CustomerBatchService customerBatchService;
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private Validator validator = VALIDATOR;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<List<Customer>> customersArgumentCaptor;
+
+    @Test
+    void saveCustomers() {
+        CustomerRegistrationRequest created = registrationRequest(getCustomer());
+        CustomerRegistrationRequest existing = registrationRequest(getCustomer());
+        CustomerRegistrationRequest duplicateInBatch = registrationRequest(getCustomer());
+        duplicateInBatch.setEmail(created.getEmail());
+        CustomerRegistrationRequest invalid = registrationRequest(getCustomer());
+        invalid.setEmail("not-an-email");
+        // valid for a single registration, so valid in a batch
+        CustomerRegistrationRequest withoutTopLevelDomain = registrationRequest(getCustomer());
+        withoutTopLevelDomain.setEmail(UUID.randomUUID() + "@localhost");
+
+        Customer saved = new Customer(7L, created.getName(), created.getEmail(), created.getAge());
+        when(customerDao.saveAll(any()))
+                .thenReturn(List.of(saved));
+
+        List<CustomerBatchItemResult> results = customerBatchService
+                .saveCustomers(List.of(created, existing, duplicateInBatch, invalid, withoutTopLevelDomain));
+
+        verify(customerDao).saveAll(customersArgumentCaptor.capture());
+        assertThat(customersArgumentCaptor.getValue())
+                .extracting(Customer::getEmail)
+                .containsExactly(created.getEmail(), existing.getEmail(), withoutTopLevelDomain.getEmail());
+
+        assertThat(results).extracting(CustomerBatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.DUPLICATE,
+                        BatchItemStatus.DUPLICATE, BatchItemStatus.INVALID, BatchItemStatus.DUPLICATE);
+        assertThat(results.get(0).getId()).isEqualTo(7L);
+        assertThat(results.get(1).getError()).isEqualTo(EMAIL_DUPLICATE_ERROR.formatted(existing.getEmail()));
+        assertThat(results.get(3).getError()).isEqualTo(INVALID_EMAIL.formatted("not-an-email"));
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.created(saved));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void saveCustomersPublishesNothingWhenTheInsertFails() {
+        when(customerDao.saveAll(any()))
+                .thenThrow(new IllegalStateException("chunk failed"));
+
+        assertThrows(IllegalStateException.class,
+                () -> customerBatchService.saveCustomers(List.of(registrationRequest(getCustomer()))));
+
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void saveCustomersReportsMissingFields() {
+        CustomerRegistrationRequest withoutName = registrationRequest(getCustomer());
+        withoutName.setName(null);
+        CustomerRegistrationRequest withoutEmail = registrationRequest(getCustomer());
+        withoutEmail.setEmail(null);
+        CustomerRegistrationRequest withoutAge = registrationRequest(getCustomer());
+        withoutAge.setAge(null);
+
+        when(customerDao.saveAll(any()))
+                .thenReturn(List.of());
+
+        List<CustomerBatchItemResult> results = customerBatchService.saveCustomers(
+                List.of(withoutName, withoutEmail, withoutAge));
+
+        assertThat(results).extracting(CustomerBatchItemResult::getError)
+                .containsExactly(NAME_REQUIRED, INVALID_EMAIL.formatted((Object) null), AGE_REQUIRED);
+    }
+
+    @Test
+    void saveCustomersThrowsWhenBatchTooLarge() {
+        List<CustomerRegistrationRequest> customers = new ArrayList<>();
+        for (int i = 0; i <= CustomerBatchService.MAX_BATCH_SIZE; i++) {
+            customers.add(new CustomerRegistrationRequest());
+        }
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerBatchService.saveCustomers(customers));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_BATCH_SIZE.formatted(CustomerBatchService.MAX_BATCH_SIZE));
+        verify(customerDao, never()).saveAll(any());
+    }
+
+    private static CustomerRegistrationRequest registrationRequest(Customer customer) {
+        CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest();
+        customerRegistrationRequest.setName(customer.getName());
+        customerRegistrationRequest.setEmail(customer.getEmail());
+        customerRegistrationRequest.setAge(customer.getAge());
+        return customerRegistrationRequest;
+    }
+}
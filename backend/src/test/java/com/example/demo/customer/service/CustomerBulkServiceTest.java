@@ -0,0 +1,187 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerBulkRequest;
+import com.example.demo.customer.model.CustomerBulkUpdateRequest;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerFilter;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.example.demo.customer.service.ValidationUtils.BULK_EMAIL_CHANGE;
+import static com.example.demo.customer.service.ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE;
+import static com.example.demo.customer.service.ValidationUtils.ID_REQUIRED;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_BULK_SIZE;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_BULK_TARGET;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBulkServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<CustomerSearchCriteria> criteriaArgumentCaptor;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CustomerService.CUSTOMER_CACHE);
+
+    private final Customer first = new Customer(1L, "Ada Lovelace", "ada@mail.com", 36, 0L);
+    private final Customer second = new Customer(2L, "Grace Hopper", "grace@mail.com", 85, 0L);
+
+    private CustomerBulkService customerBulkService() {
+        return new CustomerBulkService(customerDao, transactionManager, cacheManager, eventPublisher);
+    }
+
+    @Test
+    void deleteCustomersReportsAnOutcomePerRequestedId() {
+        cacheManager.getCache(CustomerService.CUSTOMER_CACHE).put(1L, first);
+        when(customerDao.deleteAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(first));
+
+        List<CustomerBatchItemResult> results = customerBulkService().deleteCustomers(ids(1L, 2L, null, 1L));
+
+        assertThat(results).extracting(CustomerBatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND,
+                        BatchItemStatus.INVALID, BatchItemStatus.DELETED);
+        assertThat(results).extracting(CustomerBatchItemResult::getError)
+                .containsExactly(null, CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(2L), ID_REQUIRED, null);
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.deleted(first));
+        assertThat(cacheManager.getCache(CustomerService.CUSTOMER_CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void deleteCustomersByFilterTargetsTheMatchingCustomers() {
+        CustomerFilter filter = new CustomerFilter();
+        filter.setEmailDomain("@Mail.com");
+        CustomerBulkRequest request = new CustomerBulkRequest();
+        request.setFilter(filter);
+        when(customerDao.searchCustomerIds(any()))
+                .thenReturn(List.of(1L, 2L));
+        when(customerDao.deleteAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(first, second));
+
+        List<CustomerBatchItemResult> results = customerBulkService().deleteCustomers(request);
+
+        assertThat(results).extracting(CustomerBatchItemResult::getId).containsExactly(1L, 2L);
+        verify(customerDao).searchCustomerIds(criteriaArgumentCaptor.capture());
+        assertThat(criteriaArgumentCaptor.getValue().emailDomain()).isEqualTo("mail.com");
+        assertThat(criteriaArgumentCaptor.getValue().limit()).isEqualTo(CustomerBulkService.MAX_BULK_SIZE + 1);
+    }
+
+    @Test
+    void deleteCustomersRejectsAnEmptyFilter() {
+        CustomerBulkRequest request = new CustomerBulkRequest();
+        request.setFilter(new CustomerFilter());
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerBulkService().deleteCustomers(request));
+
+        assertThat(requestValidationException.getMessage()).isEqualTo(INVALID_BULK_TARGET);
+        verify(customerDao, never()).deleteAllById(anyList());
+    }
+
+    @Test
+    void deleteCustomersRejectsAFilterMatchingTooManyCustomers() {
+        CustomerFilter filter = new CustomerFilter();
+        filter.setMinAge(18);
+        CustomerBulkRequest request = new CustomerBulkRequest();
+        request.setFilter(filter);
+        when(customerDao.searchCustomerIds(any()))
+                .thenReturn(LongStream.rangeClosed(1, CustomerBulkService.MAX_BULK_SIZE + 1).boxed().toList());
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerBulkService().deleteCustomers(request));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_BULK_SIZE.formatted(CustomerBulkService.MAX_BULK_SIZE));
+        verify(customerDao, never()).deleteAllById(anyList());
+    }
+
+    @Test
+    void deleteCustomersRejectsAnEmptyIdList() {
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerBulkService().deleteCustomers(ids()));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_BULK_SIZE.formatted(CustomerBulkService.MAX_BULK_SIZE));
+        verify(customerDao, never()).deleteAllById(anyList());
+    }
+
+    @Test
+    void updateCustomersTellsUnchangedFromMissingCustomers() {
+        Customer updated = new Customer(1L, first.getName(), first.getEmail(), 40, 1L);
+        CustomerChange change = new CustomerChange(first, updated);
+        when(customerDao.updateAllById(List.of(1L, 2L, 3L), new Customer(null, null, null, 40)))
+                .thenReturn(List.of(change));
+        when(customerDao.findExistingIds(List.of(2L, 3L)))
+                .thenReturn(List.of(2L));
+
+        List<CustomerBatchItemResult> results = customerBulkService()
+                .updateCustomers(update(changes(null, 40), 1L, 2L, 3L));
+
+        assertThat(results).extracting(CustomerBatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.UPDATED, BatchItemStatus.UNCHANGED, BatchItemStatus.NOT_FOUND);
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.updated(change));
+    }
+
+    @Test
+    void updateCustomersRejectsTheSameEmailForManyCustomers() {
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerBulkService().updateCustomers(update(changes("same@mail.com", null), 1L, 2L)));
+
+        assertThat(requestValidationException.getMessage()).isEqualTo(BULK_EMAIL_CHANGE);
+        verify(customerDao, never()).updateAllById(anyList(), any());
+    }
+
+    private static CustomerBulkRequest ids(Long... ids) {
+        CustomerBulkRequest request = new CustomerBulkRequest();
+        request.setIds(Arrays.asList(ids));
+        return request;
+    }
+
+    private static CustomerBulkUpdateRequest update(CustomerUpdateRequest changes, Long... ids) {
+        CustomerBulkUpdateRequest request = new CustomerBulkUpdateRequest();
+        request.setIds(Arrays.asList(ids));
+        request.setChanges(changes);
+        return request;
+    }
+
+    private static CustomerUpdateRequest changes(String email, Integer age) {
+        CustomerUpdateRequest changes = new CustomerUpdateRequest();
+        changes.setEmail(email);
+        changes.setAge(age);
+        return changes;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CustomerJdbcDataAccessService customerJdbcDataAccessService;
+
+    private CustomerExportService customerExportService;
+
+    @BeforeEach
+    void setUp() {
+        customerExportService = new CustomerExportService(customerJdbcDataAccessService, objectMapper);
+    }
+
+    @Test
+    void exportCustomersAsNdjson() throws Exception {
+        Customer first = getCustomer();
+        first.setId(1L);
+        Customer second = getCustomer();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(customerJdbcDataAccessService).streamAllCustomers(any());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        customerExportService.exportCustomersAsNdjson(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Customer.class)).isEqualTo(first);
+        assertThat(objectMapper.readValue(lines[1], Customer.class)).isEqualTo(second);
+        verify(customerJdbcDataAccessService).streamAllCustomers(any());
+    }
+
+    @Test
+    void exportCustomersCompressesTheCopyWithoutClosingTheStream() throws Exception {
+        byte[] rows = "id,name,email,age\n1,Ada,ada@mail.com,36\n".getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            OutputStream copy = invocation.getArgument(1);
+            copy.write(rows);
+            return 1L;
+        }).when(customerJdbcDataAccessService).copyAllCustomers(eq(CustomerExportFormat.CSV), any());
+
+        ByteArrayOutputStream outputStream = spy(new ByteArrayOutputStream());
+        customerExportService.exportCustomers(outputStream, CustomerExportFormat.CSV, true);
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(
+                new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(rows);
+        }
+        verify(outputStream, never()).close();
+    }
+}
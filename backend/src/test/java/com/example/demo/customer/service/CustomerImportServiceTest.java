@@ -0,0 +1,172 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerBatchItemResult;
+import com.example.demo.customer.model.CustomerImportResult;
+import com.example.demo.exception.RequestValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.example.demo.customer.service.ValidationUtils.AGE_REQUIRED;
+import static com.example.demo.customer.service.ValidationUtils.EMAIL_DUPLICATE_ERROR;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_AGE;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_CSV_HEADER;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_CSV_LINE;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_EMAIL;
+import static com.example.demo.customer.utils.TestUtils.VALIDATOR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+
+    @Mock
+    private CustomerJdbcDataAccessService customerJdbcDataAccessService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<UUID> importIdArgumentCaptor;
+
+    private CustomerImportService customerImportService;
+
+    // what COPY read from the upload
+    private final StringWriter staged = new StringWriter();
+
+    @BeforeEach
+    void setUp() {
+        customerImportService = new CustomerImportService(customerJdbcDataAccessService, transactionManager,
+                VALIDATOR, eventPublisher);
+    }
+
+    @Test
+    void importCustomersStagesTheValidLinesAndReportsTheRejectedOnes() {
+        Customer created = new Customer(10L, "Ada Lovelace", "ada@mail.com", 36, 0L);
+        stageRows();
+        when(customerJdbcDataAccessService.mergeImport(any())).thenReturn(1);
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(1);
+            consumer.accept(created);
+            return null;
+        }).when(customerJdbcDataAccessService).streamImportedCustomers(any(), any());
+        when(customerJdbcDataAccessService.findImportDuplicates(any(), eq(CustomerImportService.MAX_REJECTED_LINES)))
+                .thenReturn(Map.of(5L, "grace@mail.com"));
+
+        CustomerImportResult result = customerImportService.importCustomers(upload("""
+                age,Email,name
+                36,ada@mail.com,Ada Lovelace
+                ,bob@mail.com,Bob
+                abc,carl@mail.com,Carl
+                85,grace@mail.com,Grace Hopper
+                """));
+
+        verify(customerJdbcDataAccessService).mergeImport(importIdArgumentCaptor.capture());
+        UUID importId = importIdArgumentCaptor.getValue();
+        assertThat(staged.toString()).isEqualTo(
+                importId + ",2,\"Ada Lovelace\",\"ada@mail.com\",36\n" +
+                importId + ",5,\"Grace Hopper\",\"grace@mail.com\",85\n");
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getInvalid()).isEqualTo(2);
+        assertThat(result.getRejected())
+                .extracting(CustomerBatchItemResult::getIndex, CustomerBatchItemResult::getStatus,
+                        CustomerBatchItemResult::getError)
+                .containsExactly(
+                        tuple(3, BatchItemStatus.INVALID, AGE_REQUIRED),
+                        tuple(4, BatchItemStatus.INVALID, INVALID_AGE.formatted("abc")),
+                        tuple(5, BatchItemStatus.DUPLICATE, EMAIL_DUPLICATE_ERROR.formatted("grace@mail.com")));
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.created(created));
+        verify(customerJdbcDataAccessService).deleteImport(importId);
+    }
+
+    @Test
+    void importCustomersParsesQuotedFields() {
+        stageRows();
+
+        CustomerImportResult result = customerImportService.importCustomers(upload(
+                "\uFEFFname,email,age\r\n" +
+                "\"Smith, \"\"Agent\"\"\",smith@mail.com,40\r\n" +
+                "\r\n" +
+                "\"Two\nLines\",two@mail.com,50\r\n" +
+                "Null\u0000Byte,null@mail.com,60\r\n" +
+                "no-email,,70\r\n" +
+                "\"Unterminated,end@mail.com,80\r\n"));
+
+        verify(customerJdbcDataAccessService).deleteImport(importIdArgumentCaptor.capture());
+        UUID importId = importIdArgumentCaptor.getValue();
+        assertThat(staged.toString()).isEqualTo(
+                importId + ",2,\"Smith, \"\"Agent\"\"\",\"smith@mail.com\",40\n" +
+                importId + ",4,\"Two\nLines\",\"two@mail.com\",50\n");
+        assertThat(result.getRejected())
+                .extracting(CustomerBatchItemResult::getIndex, CustomerBatchItemResult::getError)
+                .containsExactly(
+                        tuple(6, INVALID_CSV_LINE),
+                        tuple(7, INVALID_EMAIL.formatted("")),
+                        tuple(8, INVALID_CSV_LINE));
+    }
+
+    @Test
+    void importCustomersRejectsAHeaderWithoutTheCustomerColumns() {
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerImportService.importCustomers(upload("name,mail\nAda,ada@mail.com\n")));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_CSV_HEADER.formatted("name, email, age"));
+        verify(customerJdbcDataAccessService, never()).copyIntoImportStaging(any());
+    }
+
+    @Test
+    void importCustomersDeletesTheStagedRowsWhenTheMergeFails() {
+        stageRows();
+        when(customerJdbcDataAccessService.mergeImport(any())).thenThrow(new IllegalStateException("merge failed"));
+
+        assertThrows(IllegalStateException.class,
+                () -> customerImportService.importCustomers(upload("name,email,age\nAda,ada@mail.com,36\n")));
+
+        verify(customerJdbcDataAccessService).mergeImport(importIdArgumentCaptor.capture());
+        verify(customerJdbcDataAccessService).deleteImport(importIdArgumentCaptor.getValue());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    // reads the upload as COPY would
+    private void stageRows() {
+        doAnswer(invocation -> {
+            Reader rows = invocation.getArgument(0);
+            rows.transferTo(staged);
+            return 0L;
+        }).when(customerJdbcDataAccessService).copyIntoImportStaging(any());
+    }
+
+    private static ByteArrayInputStream upload(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerSuggestion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerNameIndexTest {
+
+    @Mock
+    private CustomerJdbcDataAccessService customerJdbcDataAccessService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerNameIndex customerNameIndex() {
+        return new CustomerNameIndex(customerJdbcDataAccessService, transactionManager);
+    }
+
+    @Test
+    void afterSingletonsInstantiatedLoadsEveryCustomer() {
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            consumer.accept(new Customer(1L, "Ada Lovelace", "ada@mail.com", 36, 0L));
+            consumer.accept(new Customer(2L, "Grace Hopper", "grace@mail.com", 85, 0L));
+            return null;
+        }).when(customerJdbcDataAccessService).streamAllCustomers(any());
+        CustomerNameIndex index = customerNameIndex();
+
+        index.afterSingletonsInstantiated();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.suggest("gr", 10)).containsExactly(new CustomerSuggestion(2L, "Grace Hopper"));
+    }
+
+    @Test
+    void suggestMatchesTheStartOfEveryWordIgnoringCase() {
+        CustomerNameIndex index = customerNameIndex();
+        index.put(new Customer(1L, "Ada Lovelace", "ada@mail.com", 36, 0L));
+        index.put(new Customer(2L, "Adam Smith", "adam@mail.com", 67, 0L));
+        index.put(new Customer(3L, "Grace Hopper", "grace@mail.com", 85, 0L));
+
+        assertThat(index.suggest(" AD", 10)).extracting(CustomerSuggestion::getId).containsExactly(1L, 2L);
+        assertThat(index.suggest("love", 10)).extracting(CustomerSuggestion::getId).containsExactly(1L);
+        assertThat(index.suggest("ada lo", 10)).extracting(CustomerSuggestion::getId).containsExactly(1L);
+        assertThat(index.suggest("ace", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestReturnsEveryCustomerOnceUpToTheLimit() {
+        CustomerNameIndex index = customerNameIndex();
+        index.put(new Customer(1L, "Ann Annabel", "ann@mail.com", 36, 0L));
+        index.put(new Customer(2L, "Anna", "anna@mail.com", 36, 0L));
+        index.put(new Customer(3L, "Annie", "annie@mail.com", 36, 0L));
+
+        assertThat(index.suggest("ann", 10)).extracting(CustomerSuggestion::getId).containsExactly(1L, 2L, 3L);
+        assertThat(index.suggest("ann", 2)).extracting(CustomerSuggestion::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void onCustomerChangedFollowsRenamesAndDeletions() {
+        CustomerNameIndex index = customerNameIndex();
+        Customer customer = new Customer(1L, "Ada Lovelace", "ada@mail.com", 36, 0L);
+
+        index.onCustomerChanged(CustomerChangedEvent.created(customer));
+        index.onCustomerChanged(CustomerChangedEvent.updated(new CustomerChange(customer,
+                new Customer(1L, "Ada King", "ada@mail.com", 36, 1L))));
+
+        assertThat(index.suggest("love", 10)).isEmpty();
+        assertThat(index.suggest("king", 10)).containsExactly(new CustomerSuggestion(1L, "Ada King"));
+
+        index.onCustomerChanged(CustomerChangedEvent.deleted(customer));
+
+        assertThat(index.suggest("ada", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void putIgnoresAnOlderVersion() {
+        CustomerNameIndex index = customerNameIndex();
+        index.put(new Customer(1L, "Ada King", "ada@mail.com", 36, 2L));
+
+        index.put(new Customer(1L, "Ada Lovelace", "ada@mail.com", 36, 1L));
+
+        assertThat(index.suggest("ada", 10)).containsExactly(new CustomerSuggestion(1L, "Ada King"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class CustomerServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(CustomerService.class)
+    static class Config {
+
+        @Bean("routing")
+        CustomerDao customerDao() {
+            return Mockito.mock(CustomerDao.class);
+        }
+
+        @Bean
+        CustomerNameIndex customerNameIndex() {
+            return Mockito.mock(CustomerNameIndex.class);
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CustomerService.CUSTOMER_CACHE);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100));
+            return cacheManager;
+        }
+    }
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerDao customerDao;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Customer customer = getCustomer();
+
+    @BeforeEach
+    void setUp() {
+        reset(customerDao);
+        cacheManager.getCache(CustomerService.CUSTOMER_CACHE).clear();
+        customer.setId(1L);
+    }
+
+    @Test
+    void findCustomerByIdIsServedFromCache() {
+        when(customerDao.findCustomerById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+
+        customerService.findCustomerById(customer.getId());
+        Customer cached = customerService.findCustomerById(customer.getId());
+
+        assertThat(cached).isEqualTo(customer);
+        verify(customerDao, times(1)).findCustomerById(customer.getId());
+    }
+
+    @Test
+    void updateCustomerRefreshesCache() {
+        CustomerUpdateRequest customerUpdateRequest = new CustomerUpdateRequest();
+        customerUpdateRequest.setName("Updated Name");
+        Customer updated = new Customer(customer.getId(), "Updated Name", customer.getEmail(), customer.getAge());
+        when(customerDao.findCustomerById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any()))
+                .thenReturn(Optional.of(new CustomerChange(customer, updated)));
+
+        customerService.findCustomerById(customer.getId());
+        customerService.updateCustomer(customer.getId(), customerUpdateRequest);
+
+        assertThat(customerService.findCustomerById(customer.getId()).getName()).isEqualTo("Updated Name");
+        verify(customerDao, times(1)).findCustomerById(customer.getId());
+    }
+
+    @Test
+    void deleteCustomerEvictsCache() {
+        when(customerDao.findCustomerById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+        when(customerDao.deleteById(customer.getId()))
+                .thenReturn(Optional.of(customer));
+
+        customerService.findCustomerById(customer.getId());
+        customerService.deleteCustomer(customer.getId());
+        customerService.findCustomerById(customer.getId());
+
+        verify(customerDao, times(2)).findCustomerById(customer.getId());
+    }
+}
@@ -2,7 +2,16 @@ package com.example.demo.customer.service;
 
 import com.example.demo.customer.dao.CustomerDao;
 import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerNameMatch;
+import com.example.demo.customer.model.CustomerPage;
 import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerSearchCriteria;
+import com.example.demo.customer.model.CustomerSearchPage;
+import com.example.demo.customer.model.CustomerSearchRequest;
+import com.example.demo.customer.model.CustomerSearchSort;
+import com.example.demo.customer.model.CustomerSuggestion;
 import com.example.demo.customer.model.CustomerUpdateRequest;
 import com.example.demo.exception.DuplicateResourceException;
 import com.example.demo.exception.NotFoundException;
@@ -15,6 +24,9 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +34,9 @@ import java.util.Random;
 
 import static com.example.demo.customer.service.ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE;
 import static com.example.demo.customer.service.ValidationUtils.EMAIL_DUPLICATE_ERROR;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_AGE_RANGE;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_PAGE_LIMIT;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_SEARCH_CURSOR;
 import static com.example.demo.customer.service.ValidationUtils.NO_CHANGES_FOUND;
 import static com.example.demo.customer.utils.TestUtils.FAKER;
 import static com.example.demo.customer.utils.TestUtils.getCustomer;
@@ -30,9 +45,12 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,9 +63,18 @@ class CustomerServiceTest {
     @Mock
     private CustomerDao customerDao;
 
+    @Mock
+    private CustomerNameIndex customerNameIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Captor
     private ArgumentCaptor<Customer> customerArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<CustomerSearchCriteria> criteriaArgumentCaptor;
+
     private final Customer customer = getCustomer();
 
     @BeforeEach
@@ -66,6 +93,170 @@ class CustomerServiceTest {
         verify(customerDao).findAllCustomers();
     }
 
+    @Test
+    void findCustomersPage() {
+        Customer next = getCustomer();
+        next.setId(2L);
+        when(customerDao.findCustomersAfter(0L, 2))
+                .thenReturn(List.of(customer, next));
+
+        CustomerPage page = customerService.findCustomersPage(null, 1);
+
+        assertThat(page.getCustomers()).containsExactly(customer);
+        assertThat(page.getNextCursor()).isEqualTo(customer.getId());
+        verify(customerDao).findCustomersAfter(0L, 2);
+    }
+
+    @Test
+    void findCustomersPageReturnsNoCursorOnLastPage() {
+        when(customerDao.findCustomersAfter(eq(customer.getId()), anyInt()))
+                .thenReturn(List.of());
+
+        CustomerPage page = customerService.findCustomersPage(customer.getId(), null);
+
+        assertThat(page.getCustomers()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+        verify(customerDao).findCustomersAfter(customer.getId(), CustomerService.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void findCustomersPageThrowsWhenLimitExceedsMax() {
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.findCustomersPage(null, CustomerService.MAX_PAGE_SIZE + 1));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_PAGE_LIMIT.formatted(CustomerService.MAX_PAGE_SIZE));
+        verify(customerDao, never()).findCustomersAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void searchCustomers() {
+        Customer next = getCustomer();
+        next.setId(2L);
+        when(customerDao.searchCustomers(any()))
+                .thenReturn(List.of(customer, next));
+
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setName(" Ada ");
+        search.setEmailDomain("@Mail.COM");
+        search.setMinAge(18);
+        search.setSort(CustomerSearchSort.NAME);
+        search.setLimit(1);
+
+        CustomerSearchPage page = customerService.searchCustomers(search);
+
+        verify(customerDao).searchCustomers(criteriaArgumentCaptor.capture());
+        CustomerSearchCriteria criteria = criteriaArgumentCaptor.getValue();
+        assertAll(
+                () -> assertThat(page.getCustomers()).containsExactly(customer),
+                () -> assertThat(page.getNextCursor()).isNotNull(),
+                () -> assertThat(criteria.name()).isEqualTo("ada"),
+                () -> assertThat(criteria.nameMatch()).isEqualTo(CustomerNameMatch.PREFIX),
+                () -> assertThat(criteria.emailDomain()).isEqualTo("mail.com"),
+                () -> assertThat(criteria.minAge()).isEqualTo(18),
+                () -> assertThat(criteria.maxAge()).isNull(),
+                () -> assertThat(criteria.direction()).isEqualTo(Sort.Direction.ASC),
+                () -> assertThat(criteria.after()).isNull(),
+                () -> assertThat(criteria.limit()).isEqualTo(2)
+        );
+    }
+
+    @Test
+    void searchCustomersContinuesAfterTheCursor() {
+        when(customerDao.searchCustomers(any()))
+                .thenReturn(List.of(customer, getCustomer()))
+                .thenReturn(List.of());
+
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setSort(CustomerSearchSort.AGE);
+        search.setDirection(Sort.Direction.DESC);
+        search.setLimit(1);
+        search.setAfter(customerService.searchCustomers(search).getNextCursor());
+
+        CustomerSearchPage page = customerService.searchCustomers(search);
+
+        verify(customerDao, times(2)).searchCustomers(criteriaArgumentCaptor.capture());
+        Customer after = criteriaArgumentCaptor.getValue().after();
+        assertAll(
+                () -> assertThat(page.getNextCursor()).isNull(),
+                () -> assertThat(after.getId()).isEqualTo(customer.getId()),
+                () -> assertThat(after.getAge()).isEqualTo(customer.getAge())
+        );
+    }
+
+    @Test
+    void searchCustomersThrowsWhenCursorIsFromAnotherSort() {
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setSort(CustomerSearchSort.NAME);
+        search.setAfter(CustomerSearchCursor.encode(CustomerSearchSort.AGE, customer));
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.searchCustomers(search));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_SEARCH_CURSOR.formatted(search.getAfter()));
+        verify(customerDao, never()).searchCustomers(any());
+    }
+
+    @Test
+    void searchCustomersThrowsWhenCursorIsMalformed() {
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setAfter("not a cursor");
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.searchCustomers(search));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_SEARCH_CURSOR.formatted(search.getAfter()));
+        verify(customerDao, never()).searchCustomers(any());
+    }
+
+    @Test
+    void searchCustomersThrowsWhenAgeRangeIsEmpty() {
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setMinAge(40);
+        search.setMaxAge(30);
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.searchCustomers(search));
+
+        assertThat(requestValidationException.getMessage()).isEqualTo(INVALID_AGE_RANGE);
+        verify(customerDao, never()).searchCustomers(any());
+    }
+
+    @Test
+    void searchCustomersThrowsWhenLimitExceedsMax() {
+        CustomerSearchRequest search = new CustomerSearchRequest();
+        search.setLimit(CustomerService.MAX_PAGE_SIZE + 1);
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.searchCustomers(search));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_PAGE_LIMIT.formatted(CustomerService.MAX_PAGE_SIZE));
+        verify(customerDao, never()).searchCustomers(any());
+    }
+
+    @Test
+    void suggestCustomers() {
+        List<CustomerSuggestion> suggestions = List.of(new CustomerSuggestion(customer.getId(), customer.getName()));
+        when(customerNameIndex.suggest("ad", CustomerService.DEFAULT_SUGGESTIONS))
+                .thenReturn(suggestions);
+
+        assertThat(customerService.suggestCustomers("ad", null)).isEqualTo(suggestions);
+        verify(customerDao, never()).searchCustomers(any());
+    }
+
+    @Test
+    void suggestCustomersThrowsWhenLimitExceedsMax() {
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.suggestCustomers("ad", CustomerService.MAX_SUGGESTIONS + 1));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(INVALID_PAGE_LIMIT.formatted(CustomerService.MAX_SUGGESTIONS));
+        verify(customerNameIndex, never()).suggest(anyString(), anyInt());
+    }
+
     @Test
     void findCustomerById() {
         when(customerDao.findCustomerById(anyLong()))
@@ -77,6 +268,17 @@ class CustomerServiceTest {
         verify(customerDao).findCustomerById(anyLong());
     }
 
+    @Test
+    void findCustomerVersion() {
+        when(customerDao.findVersionById(customer.getId()))
+                .thenReturn(Optional.of(2L));
+
+        Optional<Long> version = customerService.findCustomerVersion(customer.getId());
+
+        assertThat(version).contains(2L);
+        verify(customerDao, never()).findCustomerById(anyLong());
+    }
+
     @Test
     void findCustomerByIdThrowsWhenDoesNotExists() {
         when(customerDao.findCustomerById(anyLong()))
@@ -92,8 +294,8 @@ class CustomerServiceTest {
 
     @Test
     void saveCustomer() {
-        when(customerDao.save(any(Customer.class)))
-                .thenReturn(customer);
+        when(customerDao.saveIfEmailAbsent(any(Customer.class)))
+                .thenReturn(Optional.of(customer));
 
         CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest();
         customerRegistrationRequest.setName(customer.getName());
@@ -103,13 +305,15 @@ class CustomerServiceTest {
         Customer savedCustomer = customerService.saveCustomer(customerRegistrationRequest);
 
         assertThat(savedCustomer).isEqualTo(customer);
-        verify(customerDao).save(any(Customer.class));
+        verify(customerDao).saveIfEmailAbsent(any(Customer.class));
+        verify(customerDao, never()).existsByEmail(anyString());
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.created(customer));
     }
 
     @Test
     void saveCustomerThrowsWhenDuplicatedEmail() {
-        when(customerDao.existsByEmail(anyString()))
-                .thenReturn(true);
+        when(customerDao.saveIfEmailAbsent(any(Customer.class)))
+                .thenReturn(Optional.empty());
 
         CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest();
         customerRegistrationRequest.setName(customer.getName());
@@ -121,25 +325,26 @@ class CustomerServiceTest {
 
         assertThat(duplicateResourceException.getMessage())
                 .isEqualTo(EMAIL_DUPLICATE_ERROR.formatted(customer.getEmail()));
-        verify(customerDao).existsByEmail(anyString());
-        verify(customerDao, never()).save(any());
+        verify(customerDao, never()).existsByEmail(anyString());
+        verify(eventPublisher, never()).publishEvent(any(CustomerChangedEvent.class));
     }
 
     @Test
     void deleteCustomer() {
-        when(customerDao.existsById(anyLong()))
-                .thenReturn(true);
+        when(customerDao.deleteById(anyLong()))
+                .thenReturn(Optional.of(customer));
 
         assertDoesNotThrow(() -> customerService.deleteCustomer(customer.getId()));
 
-        verify(customerDao).existsById(anyLong());
         verify(customerDao).deleteById(anyLong());
+        verify(customerDao, never()).existsById(anyLong());
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.deleted(customer));
     }
 
     @Test
     void deleteCustomerThrowsWhenDoesNotFound() {
-        when(customerDao.existsById(anyLong()))
-                .thenReturn(false);
+        when(customerDao.deleteById(anyLong()))
+                .thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> customerService.deleteCustomer(customer.getId()));
@@ -147,8 +352,8 @@ class CustomerServiceTest {
         assertThat(notFoundException.getMessage())
                 .isEqualTo(CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(customer.getId()));
 
-        verify(customerDao).existsById(anyLong());
-        verify(customerDao, never()).deleteById(anyLong());
+        verify(customerDao).deleteById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any(CustomerChangedEvent.class));
     }
 
     @Test
@@ -158,24 +363,24 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(FAKER.internet().safeEmailAddress());
         customerUpdateRequest.setAge(new Random().nextInt(16, 99));
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
         when(customerDao.updateCustomer(any()))
-                .thenReturn(new Customer(1L,
+                .thenReturn(Optional.of(new CustomerChange(customer, new Customer(1L,
                         customerUpdateRequest.getName(),
                         customerUpdateRequest.getEmail(),
-                        customerUpdateRequest.getAge()));
+                        customerUpdateRequest.getAge()))));
 
         Customer updatedCustomer = customerService.updateCustomer(customer.getId(), customerUpdateRequest);
-        verify(customerDao).findCustomerById(anyLong());
+        verify(customerDao, never()).findCustomerById(anyLong());
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer customerArgumentCaptorValue = customerArgumentCaptor.getValue();
 
         assertAll(
+                () -> assertThat(customerArgumentCaptorValue.getId()).isEqualTo(customer.getId()),
                 () -> assertThat(updatedCustomer.getName()).isEqualTo(customerArgumentCaptorValue.getName()),
                 () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customerArgumentCaptorValue.getEmail()),
                 () -> assertThat(updatedCustomer.getAge()).isEqualTo(customerArgumentCaptorValue.getAge())
         );
+        verify(eventPublisher).publishEvent(CustomerChangedEvent.updated(new CustomerChange(customer, updatedCustomer)));
     }
 
     @Test
@@ -185,24 +390,24 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(null);
         customerUpdateRequest.setAge(null);
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
         when(customerDao.updateCustomer(any()))
-                .thenReturn(new Customer(1L,
+                .thenReturn(Optional.of(new CustomerChange(customer, new Customer(1L,
                         customerUpdateRequest.getName(),
                         customer.getEmail(),
-                        customer.getAge()));
+                        customer.getAge()))));
 
         Customer updatedCustomer = customerService.updateCustomer(customer.getId(), customerUpdateRequest);
 
-        verify(customerDao).findCustomerById(anyLong());
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer customerArgumentCaptorValue = customerArgumentCaptor.getValue();
 
         assertAll(
-                () -> assertThat(updatedCustomer.getName()).isEqualTo(customerArgumentCaptorValue.getName()),
-                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customerArgumentCaptorValue.getEmail()),
-                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customerArgumentCaptorValue.getAge())
+                () -> assertThat(customerArgumentCaptorValue.getName()).isEqualTo(customerUpdateRequest.getName()),
+                () -> assertThat(customerArgumentCaptorValue.getEmail()).isNull(),
+                () -> assertThat(customerArgumentCaptorValue.getAge()).isNull(),
+                () -> assertThat(updatedCustomer.getName()).isEqualTo(customerUpdateRequest.getName()),
+                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customer.getEmail()),
+                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customer.getAge())
         );
     }
 
@@ -213,24 +418,25 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(FAKER.internet().safeEmailAddress());
         customerUpdateRequest.setAge(null);
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
         when(customerDao.updateCustomer(any()))
-                .thenReturn(new Customer(1L,
+                .thenReturn(Optional.of(new CustomerChange(customer, new Customer(1L,
                         customer.getName(),
                         customerUpdateRequest.getEmail(),
-                        customer.getAge()));
+                        customer.getAge()))));
 
         Customer updatedCustomer = customerService.updateCustomer(customer.getId(), customerUpdateRequest);
 
-        verify(customerDao).findCustomerById(anyLong());
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+        verify(customerDao, never()).existsByEmail(anyString());
         Customer customerArgumentCaptorValue = customerArgumentCaptor.getValue();
 
         assertAll(
-                () -> assertThat(updatedCustomer.getName()).isEqualTo(customerArgumentCaptorValue.getName()),
-                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customerArgumentCaptorValue.getEmail()),
-                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customerArgumentCaptorValue.getAge())
+                () -> assertThat(customerArgumentCaptorValue.getName()).isNull(),
+                () -> assertThat(customerArgumentCaptorValue.getEmail()).isEqualTo(customerUpdateRequest.getEmail()),
+                () -> assertThat(customerArgumentCaptorValue.getAge()).isNull(),
+                () -> assertThat(updatedCustomer.getName()).isEqualTo(customer.getName()),
+                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customerUpdateRequest.getEmail()),
+                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customer.getAge())
         );
     }
 
@@ -241,24 +447,24 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(null);
         customerUpdateRequest.setAge(new Random().nextInt(16, 99));
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
         when(customerDao.updateCustomer(any()))
-                .thenReturn(new Customer(1L,
+                .thenReturn(Optional.of(new CustomerChange(customer, new Customer(1L,
                         customer.getName(),
                         customer.getEmail(),
-                        customerUpdateRequest.getAge()));
+                        customerUpdateRequest.getAge()))));
 
         Customer updatedCustomer = customerService.updateCustomer(customer.getId(), customerUpdateRequest);
 
-        verify(customerDao).findCustomerById(anyLong());
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer customerArgumentCaptorValue = customerArgumentCaptor.getValue();
 
         assertAll(
-                () -> assertThat(updatedCustomer.getName()).isEqualTo(customerArgumentCaptorValue.getName()),
-                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customerArgumentCaptorValue.getEmail()),
-                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customerArgumentCaptorValue.getAge())
+                () -> assertThat(customerArgumentCaptorValue.getName()).isNull(),
+                () -> assertThat(customerArgumentCaptorValue.getEmail()).isNull(),
+                () -> assertThat(customerArgumentCaptorValue.getAge()).isEqualTo(customerUpdateRequest.getAge()),
+                () -> assertThat(updatedCustomer.getName()).isEqualTo(customer.getName()),
+                () -> assertThat(updatedCustomer.getEmail()).isEqualTo(customer.getEmail()),
+                () -> assertThat(updatedCustomer.getAge()).isEqualTo(customerUpdateRequest.getAge())
         );
     }
 
@@ -269,8 +475,10 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(FAKER.internet().safeEmailAddress());
         customerUpdateRequest.setAge(new Random().nextInt(16, 99));
 
-        when(customerDao.findCustomerById(anyLong()))
+        when(customerDao.updateCustomer(any()))
                 .thenReturn(Optional.empty());
+        when(customerDao.existsById(anyLong()))
+                .thenReturn(false);
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
                 () -> customerService.updateCustomer(customer.getId(), customerUpdateRequest));
@@ -278,8 +486,9 @@ class CustomerServiceTest {
         assertThat(notFoundException.getMessage())
                 .isEqualTo(CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(customer.getId()));
 
-        verify(customerDao).findCustomerById(anyLong());
-        verify(customerDao, never()).updateCustomer(any());
+        verify(customerDao).updateCustomer(any());
+        verify(customerDao).existsById(customer.getId());
+        verify(eventPublisher, never()).publishEvent(any(CustomerChangedEvent.class));
     }
 
     @Test
@@ -288,10 +497,25 @@ class CustomerServiceTest {
         customerUpdateRequest.setName(customer.getName());
         customerUpdateRequest.setEmail(customer.getEmail());
         customerUpdateRequest.setAge(customer.getAge());
-        ;
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any()))
+                .thenReturn(Optional.empty());
+        when(customerDao.existsById(anyLong()))
+                .thenReturn(true);
+
+        RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
+                () -> customerService.updateCustomer(customer.getId(), customerUpdateRequest));
+
+        assertThat(requestValidationException.getMessage())
+                .isEqualTo(NO_CHANGES_FOUND);
+
+        verify(customerDao).updateCustomer(any());
+        verify(customerDao).existsById(customer.getId());
+    }
+
+    @Test
+    void updateCustomerThrowsWhenRequestIsEmpty() {
+        CustomerUpdateRequest customerUpdateRequest = new CustomerUpdateRequest();
 
         RequestValidationException requestValidationException = assertThrows(RequestValidationException.class,
                 () -> customerService.updateCustomer(customer.getId(), customerUpdateRequest));
@@ -299,7 +523,6 @@ class CustomerServiceTest {
         assertThat(requestValidationException.getMessage())
                 .isEqualTo(NO_CHANGES_FOUND);
 
-        verify(customerDao).findCustomerById(anyLong());
         verify(customerDao, never()).updateCustomer(any());
     }
 
@@ -310,10 +533,8 @@ class CustomerServiceTest {
         customerUpdateRequest.setEmail(FAKER.internet().safeEmailAddress());
         customerUpdateRequest.setAge(new Random().nextInt(16, 99));
 
-        when(customerDao.findCustomerById(anyLong()))
-                .thenReturn(Optional.of(customer));
-        when(customerDao.existsByEmail(anyString()))
-                .thenReturn(true);
+        when(customerDao.updateCustomer(any()))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint \"customer_email_unique\""));
 
         DuplicateResourceException duplicateResourceException = assertThrows(DuplicateResourceException.class,
                 () -> customerService.updateCustomer(customer.getId(), customerUpdateRequest));
@@ -321,8 +542,7 @@ class CustomerServiceTest {
         assertThat(duplicateResourceException.getMessage())
                 .isEqualTo(EMAIL_DUPLICATE_ERROR.formatted(customerUpdateRequest.getEmail()));
 
-        verify(customerDao).findCustomerById(anyLong());
-        verify(customerDao).existsByEmail(anyString());
-        verify(customerDao, never()).updateCustomer(any());
+        verify(customerDao).updateCustomer(any());
+        verify(customerDao, never()).existsById(anyLong());
     }
 }
\ No newline at end of file
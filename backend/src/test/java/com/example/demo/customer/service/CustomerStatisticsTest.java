@@ -0,0 +1,108 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.CustomerJdbcDataAccessService;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.event.CustomerChangedEvent;
+import com.example.demo.customer.model.CustomerAgeBucket;
+import com.example.demo.customer.model.CustomerChange;
+import com.example.demo.customer.model.CustomerEmailDomainCount;
+import com.example.demo.customer.model.CustomerStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatisticsTest {
+
+    @InjectMocks
+    private CustomerStatistics customerStatistics;
+
+    @Mock
+    private CustomerJdbcDataAccessService customerJdbcDataAccessService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(customerJdbcDataAccessService.countCustomersByAge())
+                .thenReturn(Map.of(25, 2L, 31, 1L, 120, 1L));
+        when(customerJdbcDataAccessService.countCustomersByEmailDomain())
+                .thenReturn(Map.of("mail.com", 3L, "example.org", 1L));
+
+        customerStatistics.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void snapshotReturnsTheSeededAggregates() {
+        CustomerStats stats = customerStatistics.snapshot();
+
+        assertThat(stats.getCount()).isEqualTo(4);
+        assertThat(stats.getAgeHistogram()).hasSize(CustomerStatistics.AGE_BUCKETS)
+                .extracting(CustomerAgeBucket::getFromAge, CustomerAgeBucket::getToAge, CustomerAgeBucket::getCount)
+                .contains(tuple(20, 29, 2L), tuple(30, 39, 1L), tuple(90, null, 1L), tuple(0, 9, 0L));
+        assertThat(stats.getTopEmailDomains())
+                .extracting(CustomerEmailDomainCount::getDomain, CustomerEmailDomainCount::getCount)
+                .containsExactly(tuple("mail.com", 3L), tuple("example.org", 1L));
+    }
+
+    @Test
+    void seedsBothAggregatesFromOneSnapshot() {
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+
+        assertThat(definition.getValue().getIsolationLevel())
+                .isEqualTo(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void onCustomerChangedAdjustsTheAggregates() {
+        Customer created = new Customer(1L, "Ada", "ada@Engine.test", 36, 0L);
+        Customer updated = new Customer(1L, "Ada", "ada@mail.com", 45, 1L);
+
+        customerStatistics.onCustomerChanged(CustomerChangedEvent.created(created));
+        customerStatistics.onCustomerChanged(CustomerChangedEvent.updated(new CustomerChange(created, updated)));
+
+        CustomerStats afterUpdate = customerStatistics.snapshot();
+        assertThat(afterUpdate.getCount()).isEqualTo(5);
+        assertThat(afterUpdate.getAgeHistogram())
+                .extracting(CustomerAgeBucket::getFromAge, CustomerAgeBucket::getCount)
+                .contains(tuple(30, 1L), tuple(40, 1L));
+        assertThat(afterUpdate.getTopEmailDomains())
+                .extracting(CustomerEmailDomainCount::getDomain, CustomerEmailDomainCount::getCount)
+                .containsExactly(tuple("mail.com", 4L), tuple("example.org", 1L));
+
+        customerStatistics.onCustomerChanged(CustomerChangedEvent.deleted(updated));
+
+        CustomerStats afterDelete = customerStatistics.snapshot();
+        assertThat(afterDelete.getCount()).isEqualTo(4);
+        assertThat(afterDelete.getAgeHistogram())
+                .extracting(CustomerAgeBucket::getFromAge, CustomerAgeBucket::getCount)
+                .contains(tuple(40, 0L));
+        assertThat(afterDelete.getTopEmailDomains())
+                .extracting(CustomerEmailDomainCount::getDomain, CustomerEmailDomainCount::getCount)
+                .containsExactly(tuple("mail.com", 3L), tuple("example.org", 1L));
+    }
+
+    @Test
+    void emailDomainIsTheLowerCasePartAfterTheLastAt() {
+        assertThat(CustomerStatistics.emailDomain("\"a@b\"@Mail.COM")).isEqualTo("mail.com");
+        assertThat(CustomerStatistics.emailDomain("no-domain")).isEqualTo("no-domain");
+    }
+}
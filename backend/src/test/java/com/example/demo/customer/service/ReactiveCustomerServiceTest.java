@@ -0,0 +1,173 @@
+package com.example.demo.customer.service;
+
+import com.example.demo.customer.dao.ReactiveCustomerDao;
+import com.example.demo.customer.entity.Customer;
+import com.example.demo.customer.model.BatchItemStatus;
+import com.example.demo.customer.model.CustomerRegistrationRequest;
+import com.example.demo.customer.model.CustomerUpdateRequest;
+import com.example.demo.exception.DuplicateResourceException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.exception.RequestValidationException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static com.example.demo.customer.service.ValidationUtils.CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE;
+import static com.example.demo.customer.service.ValidationUtils.EMAIL_DUPLICATE_ERROR;
+import static com.example.demo.customer.service.ValidationUtils.INVALID_PAGE_LIMIT;
+import static com.example.demo.customer.service.ValidationUtils.NO_CHANGES_FOUND;
+import static com.example.demo.customer.utils.TestUtils.VALIDATOR;
+import static com.example.demo.customer.utils.TestUtils.getCustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    @InjectMocks
+    private ReactiveCustomerService reactiveCustomerService;
+
+    @Mock
+    private ReactiveCustomerDao reactiveCustomerDao;
+
+    @Spy
+    private Validator validator = VALIDATOR;
+
+    private final Customer customer = getCustomer();
+
+    @BeforeEach
+    void setUp() {
+        customer.setId(1L);
+    }
+
+    @Test
+    void findCustomersPage() {
+        Customer next = getCustomer();
+        next.setId(2L);
+        when(reactiveCustomerDao.findCustomersAfter(0L, 2))
+                .thenReturn(Flux.just(customer, next));
+
+        StepVerifier.create(reactiveCustomerService.findCustomersPage(null, 1))
+                .assertNext(page -> {
+                    assertThat(page.getCustomers()).containsExactly(customer);
+                    assertThat(page.getNextCursor()).isEqualTo(customer.getId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findCustomersPageFailsWhenLimitExceedsMax() {
+        StepVerifier.create(reactiveCustomerService.findCustomersPage(null, CustomerService.MAX_PAGE_SIZE + 1))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(RequestValidationException.class)
+                        .hasMessage(INVALID_PAGE_LIMIT.formatted(CustomerService.MAX_PAGE_SIZE)))
+                .verify();
+        verify(reactiveCustomerDao, never()).findCustomersAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void findCustomerByIdFailsWhenDoesNotExists() {
+        when(reactiveCustomerDao.findCustomerById(customer.getId()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(reactiveCustomerService.findCustomerById(customer.getId()))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(NotFoundException.class)
+                        .hasMessage(CUSTOMER_NOT_FOUND_EXCEPTION_MESSAGE.formatted(customer.getId())))
+                .verify();
+    }
+
+    @Test
+    void saveCustomerFailsWhenDuplicatedEmail() {
+        when(reactiveCustomerDao.saveIfEmailAbsent(any(Customer.class)))
+                .thenReturn(Mono.empty());
+
+        CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest();
+        customerRegistrationRequest.setName(customer.getName());
+        customerRegistrationRequest.setEmail(customer.getEmail());
+        customerRegistrationRequest.setAge(customer.getAge());
+
+        StepVerifier.create(reactiveCustomerService.saveCustomer(customerRegistrationRequest))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(DuplicateResourceException.class)
+                        .hasMessage(EMAIL_DUPLICATE_ERROR.formatted(customer.getEmail())))
+                .verify();
+    }
+
+    @Test
+    void saveCustomers() {
+        CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest();
+        customerRegistrationRequest.setName(customer.getName());
+        customerRegistrationRequest.setEmail(customer.getEmail());
+        customerRegistrationRequest.setAge(customer.getAge());
+        when(reactiveCustomerDao.saveAll(any()))
+                .thenReturn(Flux.just(customer));
+
+        StepVerifier.create(reactiveCustomerService.saveCustomers(List.of(customerRegistrationRequest)))
+                .assertNext(results -> {
+                    assertThat(results).hasSize(1);
+                    assertThat(results.get(0).getStatus()).isEqualTo(BatchItemStatus.CREATED);
+                    assertThat(results.get(0).getId()).isEqualTo(customer.getId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteCustomerFailsWhenDoesNotExists() {
+        when(reactiveCustomerDao.deleteById(customer.getId()))
+                .thenReturn(Mono.just(false));
+
+        StepVerifier.create(reactiveCustomerService.deleteCustomer(customer.getId()))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void updateCustomerFailsWhenNoChanges() {
+        when(reactiveCustomerDao.updateCustomer(any(Customer.class)))
+                .thenReturn(Mono.empty());
+        when(reactiveCustomerDao.existsById(customer.getId()))
+                .thenReturn(Mono.just(true));
+
+        CustomerUpdateRequest customerUpdateRequest = new CustomerUpdateRequest();
+        customerUpdateRequest.setAge(customer.getAge());
+
+        StepVerifier.create(reactiveCustomerService.updateCustomer(customer.getId(), customerUpdateRequest))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(RequestValidationException.class)
+                        .hasMessage(NO_CHANGES_FOUND))
+                .verify();
+    }
+
+    @Test
+    void updateCustomerFailsWhenEmailTaken() {
+        when(reactiveCustomerDao.updateCustomer(any(Customer.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException(
+                        "duplicate key value violates unique constraint \"customer_email_unique\"")));
+
+        CustomerUpdateRequest customerUpdateRequest = new CustomerUpdateRequest();
+        customerUpdateRequest.setEmail(customer.getEmail());
+
+        StepVerifier.create(reactiveCustomerService.updateCustomer(customer.getId(), customerUpdateRequest))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(DuplicateResourceException.class)
+                        .hasMessage(EMAIL_DUPLICATE_ERROR.formatted(customer.getEmail())))
+                .verify();
+    }
+}
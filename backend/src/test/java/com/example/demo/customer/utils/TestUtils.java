@@ -2,6 +2,8 @@ package com.example.demo.customer.utils;
 
 import com.example.demo.customer.entity.Customer;
 import com.github.javafaker.Faker;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Random;
@@ -12,6 +14,8 @@ public interface TestUtils {
 
     Faker FAKER = new Faker();
 
+    Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
     @NotNull
     static Customer getCustomer() {
         Customer customer = new Customer();
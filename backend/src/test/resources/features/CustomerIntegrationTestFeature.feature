@@ -19,11 +19,64 @@ Feature: Customer Management
     And Getting the customer by customer id
     Then The added customer is found
 
+  Scenario: Revalidate customer with its ETag
+    And Getting the customer by customer id
+    Then Getting the customer with its ETag is not modified
+    And Generating customer update request
+      | name    | email | age |
+      | Renamed |       |     |
+    And Update customer
+    Then Getting the customer with its previous ETag returns the updated customer
+
+  Scenario: Search customers by name and email domain
+    And Searching customers by the added customer's name and email domain
+    Then The search results contain the added customer
+
+  Scenario: Suggest customers by name prefix
+    And Suggesting customers for the added customer's name
+    Then The suggestions contain the added customer
+
+  Scenario: Customer statistics follow changes
+    And Getting the customer statistics
+    And Delete customer by id
+    Then The customer statistics count one customer less
+
+  Scenario: Watch customer changes
+    And Watching customer changes
+    And Delete customer by id
+    Then The change stream announces the deleted customer
+
   Scenario: Delete customer by id
     And Delete customer by id
     And Getting all customers
     Then The list does not contain the deleted customer
 
+  Scenario: Bulk delete customers by id
+    And Bulk deleting the added customer by id
+    Then The bulk result reports the added customer deleted
+    And Getting all customers
+    Then The list does not contain the deleted customer
+
+  Scenario: Import customers from CSV
+    And Importing a CSV with a new customer and the added customer's email
+    Then The import creates the new customer and rejects the added customer's email
+
+  Scenario Outline: Export customers as CSV
+    And Exporting customers as CSV accepting the encodings "<accept encoding>"
+    Then The export is encoded as "<content encoding>" and contains the added customer
+
+    Examples:
+      | accept encoding         | content encoding |
+      | gzip, deflate, br       | gzip             |
+      | gzip;q=0, deflate       |                  |
+      | br, *;q=0.5             | gzip             |
+      | *, gzip;q=0             |                  |
+      |                         |                  |
+
+  Scenario: Register customers in batch
+    And Registering 3 random customers in batch
+    Then All batch customers are created
+
   Scenario Outline: Update customer
     And Generating customer update request
       | name   | email   | age   |